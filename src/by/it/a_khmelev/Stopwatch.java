@@ -0,0 +1,126 @@
+package by.it.a_khmelev;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/*
+ * Общий секундомер для main-методов уроков.
+ *
+ * Простой замер:
+ *      Stopwatch watch = new Stopwatch();
+ *      ...
+ *      System.out.printf("time=%s", watch);          //"12.345 ms"
+ *
+ * Серия замеров с прогревом (JIT) и перцентилями:
+ *      Stopwatch.measure("fastB(55555)", 5, 20, () -> fibo.fastB(55555));
+ *
+ * Время берется из System.nanoTime (а не currentTimeMillis с шагом до 10 мс),
+ * выделенная память - из ThreadMXBean текущего потока, если JVM это поддерживает.
+ */
+
+public class Stopwatch {
+
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    //сюда пишется результат каждого прогона, чтобы JIT не выбросил "ненужное" вычисление
+    private static volatile Object sink;
+
+    private long startNanos;
+    private long startBytes;
+
+    public Stopwatch() {
+        restart();
+    }
+
+    public void restart() {
+        startBytes = allocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public double elapsedMillis() {
+        return elapsedNanos() / 1e6;
+    }
+
+    //сколько байт выделил текущий поток с момента старта, -1 если JVM не умеет считать
+    public long elapsedBytes() {
+        long bytes = allocatedBytes();
+        return bytes < 0 ? -1 : bytes - startBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.3f ms", elapsedMillis());
+    }
+
+    //warmup прогонов без учета, затем iterations замеров; печатает и возвращает сводку
+    public static Summary measure(String name, int warmup, int iterations, Supplier<?> task) {
+        if (iterations < 1) throw new IllegalArgumentException("iterations < 1: " + iterations);
+        for (int i = 0; i < warmup; i++) {
+            sink = task.get();
+        }
+        long[] nanos = new long[iterations];
+        long bytes = 0;
+        Stopwatch watch = new Stopwatch();
+        for (int i = 0; i < iterations; i++) {
+            watch.restart();
+            sink = task.get();
+            nanos[i] = watch.elapsedNanos();
+            long allocated = watch.elapsedBytes();
+            bytes = (allocated < 0 || bytes < 0) ? -1 : bytes + allocated;
+        }
+        Summary summary = new Summary(name, warmup, nanos, bytes < 0 ? -1 : bytes / iterations);
+        System.out.println(summary);
+        return summary;
+    }
+
+    private static long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    //итог серии замеров, времена в наносекундах отсортированы по возрастанию
+    public static class Summary {
+        final String name;
+        final int warmup;
+        final long[] nanos;
+        final long bytesPerOp;
+
+        Summary(String name, int warmup, long[] nanos, long bytesPerOp) {
+            this.name = name;
+            this.warmup = warmup;
+            this.nanos = nanos.clone();
+            Arrays.sort(this.nanos);
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        //p от 0 до 100, метод ближайшего ранга
+        public long percentileNanos(double p) {
+            int rank = (int) Math.ceil(p / 100 * nanos.length);
+            return nanos[Math.max(0, Math.min(nanos.length - 1, rank - 1))];
+        }
+
+        public long bytesPerOp() {
+            return bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: warmup=%d runs=%d min=%.3f p50=%.3f p90=%.3f p99=%.3f max=%.3f ms alloc=%s",
+                    name, warmup, nanos.length,
+                    nanos[0] / 1e6, percentileNanos(50) / 1e6, percentileNanos(90) / 1e6,
+                    percentileNanos(99) / 1e6, nanos[nanos.length - 1] / 1e6,
+                    bytesPerOp < 0 ? "n/a" : bytesPerOp + " B/op");
+        }
+    }
+}
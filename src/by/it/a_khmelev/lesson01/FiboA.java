@@ -1,5 +1,7 @@
 package by.it.a_khmelev.lesson01;
 
+import by.it.a_khmelev.Stopwatch;
+
 import java.math.BigInteger;
 
 /*
@@ -8,21 +10,38 @@ import java.math.BigInteger;
 
 public class FiboA {
 
-    private long startTime = System.currentTimeMillis();
-
-    private long time() {
-        return System.currentTimeMillis() - startTime;
-    }
+    private final Stopwatch stopwatch = new Stopwatch();
 
     public static void main(String[] args) {
         FiboA fibo = new FiboA();
         int n = 33;
-        System.out.printf("calc(%d)=%d \n\t time=%d \n\n", n, fibo.calc(n), fibo.time());
+        System.out.printf("calc(%d)=%d \n\t time=%s \n\n", n, fibo.calc(n), fibo.stopwatch);
 
         //вычисление чисел фибоначчи медленным методом (рекурсией)
         fibo = new FiboA();
         n = 33;
-        System.out.printf("slowA(%d)=%d \n\t time=%d \n\n", n, fibo.slowA(n), fibo.time());
+        System.out.printf("slowA(%d)=%d \n\t time=%s \n\n", n, fibo.slowA(n), fibo.stopwatch);
+
+        //сравнение рекурсии с мемоизацией на явном стеке и простого цикла
+        for (int k : new int[]{20, 25, 30, 33, 90, 1_000, 10_000, 100_000}) {
+            bench(k);
+        }
+    }
+
+    private static void bench(int n) {
+        FiboA fibo = new FiboA();
+        if (n <= 35) {
+            Stopwatch.measure("calc(" + n + ")", 3, 10, () -> fibo.calc(n));
+            Stopwatch.measure("slowA(" + n + ")", 3, 10, () -> fibo.slowA(n));
+        }
+        if (n <= 92) { //дальше long переполняется
+            Stopwatch.measure("memoCalc(" + n + ")", 100, 1000, () -> fibo.memoCalc(n));
+        }
+        if (n <= 10_000) { //кэш хранит все n чисел, память растет как O(n^2) бит
+            Stopwatch.measure("memoA(" + n + ")", 10, 50, () -> fibo.memoA(n));
+        }
+        Stopwatch.measure("iterA(" + n + ")", 3, 10, () -> fibo.iterA(n));
+        System.out.println();
     }
 
 
@@ -48,6 +67,68 @@ public class FiboA {
     }
 
 
+    //та же рекурсия calc(n) = calc(n-1) + calc(n-2), но
+    //  - результаты запоминаются в long[] (каждое значение считается один раз, время O(n))
+    //  - вместо стека вызовов используется явный стек int[], поэтому большое n не дает StackOverflowError
+    //long хватает до n=92, дальше переполнение
+    long memoCalc(int n) {
+        if (n < 2) return n;
+        long[] memo = new long[n + 1];
+        boolean[] done = new boolean[n + 1];
+        done[0] = done[1] = true;
+        memo[1] = 1;
+        int[] stack = new int[n + 1];
+        int top = 0;
+        stack[top++] = n;
+        while (top > 0) {
+            int k = stack[top - 1];
+            if (done[k - 1] && done[k - 2]) {
+                memo[k] = memo[k - 1] + memo[k - 2];
+                done[k] = true;
+                top--;
+            } else {
+                //сначала "вызываем" calc(k-1), он попутно посчитает и calc(k-2),
+                //поэтому на стеке не больше n элементов
+                stack[top++] = done[k - 1] ? k - 2 : k - 1;
+            }
+        }
+        return memo[n];
+    }
+
+    //вариант memoCalc без ограничения на размер числа
+    BigInteger memoA(int n) {
+        if (n < 2) return BigInteger.valueOf(n);
+        BigInteger[] memo = new BigInteger[n + 1];
+        memo[0] = BigInteger.ZERO;
+        memo[1] = BigInteger.ONE;
+        int[] stack = new int[n + 1];
+        int top = 0;
+        stack[top++] = n;
+        while (top > 0) {
+            int k = stack[top - 1];
+            if (memo[k - 1] != null && memo[k - 2] != null) {
+                memo[k] = memo[k - 1].add(memo[k - 2]);
+                top--;
+            } else {
+                stack[top++] = memo[k - 1] != null ? k - 2 : k - 1;
+            }
+        }
+        return memo[n];
+    }
+
+    //итерация снизу вверх: время O(n), в памяти только два последних числа
+    BigInteger iterA(int n) {
+        BigInteger a = BigInteger.ZERO;
+        BigInteger b = BigInteger.ONE;
+        for (int i = 0; i < n; i++) {
+            BigInteger next = a.add(b);
+            a = b;
+            b = next;
+        }
+        return a;
+    }
+
+
 
 }
 
@@ -1,5 +1,7 @@
 package by.it.a_khmelev.lesson01;
 
+import by.it.a_khmelev.Stopwatch;
+
 import java.math.BigInteger;
 
 /*
@@ -9,11 +11,7 @@ import java.math.BigInteger;
 
 public class FiboB {
 
-    private long startTime = System.currentTimeMillis();
-
-    private long time() {
-        return System.currentTimeMillis() - startTime;
-    }
+    private final Stopwatch stopwatch = new Stopwatch();
 
     public static void main(String[] args) {
 
@@ -23,7 +21,7 @@ public class FiboB {
         int n = 55555;
 
 
-        System.out.printf("fastB(%d)=%d \n\t time=%d \n\n", n, fibo.fastB(n), fibo.time());
+        System.out.printf("fastB(%d)=%d \n\t time=%s \n\n", n, fibo.fastB(n), fibo.stopwatch);
     }
 
     public BigInteger getFibonacciByIndexRecursive(int n, BigInteger[] memo) {
@@ -39,10 +37,10 @@ public class FiboB {
     }
 
     BigInteger fastB(Integer n) {
-        //здесь нужно реализовать вариант с временем O(n) и памятью O(n)
-
-
-            return  BigInteger.ZERO;
+        //быстрое удвоение (FiboDoubling): F(2k) и F(2k+1) через F(k) и F(k+1),
+        //O(log n) шагов по битам n, на каждом - несколько умножений BigInteger,
+        //память O(1) чисел вместо массива на n+1 элементов
+        return FiboDoubling.fib(n);
     }
 
 }
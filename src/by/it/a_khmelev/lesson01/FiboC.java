@@ -6,16 +6,15 @@ package by.it.a_khmelev.lesson01;
  * время расчета должно быть не более 2 секунд
  */
 
+import by.it.a_khmelev.Stopwatch;
+
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class FiboC {
 
-    private long startTime = System.currentTimeMillis();
-
-    private long time() {
-        return System.currentTimeMillis() - startTime;
-    }
+    private final Stopwatch stopwatch = new Stopwatch();
 
 
 
@@ -23,24 +22,42 @@ public class FiboC {
         FiboC fibo = new FiboC();
         int n = 10;
         int m = 2;
-        System.out.printf("fasterC(%d)=%d \n\t time=%d \n\n", n, fibo.fasterC(n, m), fibo.time());
+        System.out.printf("fasterC(%d)=%d \n\t time=%s \n\n", n, fibo.fasterC(n, m), fibo.stopwatch);
     }
 
 
 
 
     long fasterC(long n, int m) {
-
-
-
-
-       return 0;
-
-
         //Решение сложно найти интуитивно
         //возможно потребуется дополнительный поиск информации
         //см. период Пизано
-        //return 0L;
+        //период берется из кэша PisanoPeriod, затем быстрое удвоение по модулю m: O(log n)
+        return FiboDoubling.fibMod(n % PisanoPeriod.period(m), m);
+    }
+
+    //пакетный вариант: result[i] = F(n[i]) mod m[i]
+    //запросы группируются по модулю, чтобы период каждого модуля брался один раз
+    long[] fasterC(long[] n, int[] m) {
+        if (n.length != m.length) throw new IllegalArgumentException("n.length != m.length");
+        //ключ: модуль в старших 32 битах, исходный индекс в младших
+        long[] order = new long[n.length];
+        for (int i = 0; i < n.length; i++) {
+            order[i] = ((long) m[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        long[] result = new long[n.length];
+        int modulus = 0;
+        long period = 0;
+        for (long key : order) {
+            int i = (int) key;
+            if (m[i] != modulus || period == 0) {
+                modulus = m[i];
+                period = PisanoPeriod.period(modulus);
+            }
+            result[i] = FiboDoubling.fibMod(n[i] % period, modulus);
+        }
+        return result;
     }
 
 
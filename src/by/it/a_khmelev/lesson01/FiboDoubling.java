@@ -0,0 +1,104 @@
+package by.it.a_khmelev.lesson01;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.math.BigInteger;
+
+/*
+ * Быстрое удвоение (fast doubling) для чисел Фибоначчи.
+ * Это та же матричная формула [[1,1],[1,0]]^n, но без лишних элементов матрицы:
+ *      F(2k)   = F(k) * (2*F(k+1) - F(k))
+ *      F(2k+1) = F(k)^2 + F(k+1)^2
+ * время O(log n) умножений, в памяти одновременно живут только два числа.
+ *
+ * Два режима:
+ *      fib(n)       - точное значение (BigInteger)
+ *      fibMod(n, m) - остаток от деления на m (long)
+ */
+
+public class FiboDoubling {
+
+    //граница, до которой произведение двух остатков помещается в long без переполнения
+    private static final long SAFE_MODULUS = 3037000499L; //floor(sqrt(Long.MAX_VALUE))
+
+    public static void main(String[] args) {
+        Stopwatch.measure("FiboA.slowA(33)", 2, 5, () -> new FiboA().slowA(33));
+        Stopwatch.measure("fib(33)", 1000, 10000, () -> fib(33));
+
+        int memoN = 5555; //рекурсия с мемоизацией из FiboB дальше упирается в глубину стека
+        Stopwatch.measure("FiboB.getFibonacciByIndexRecursive(" + memoN + ")", 10, 50,
+                () -> new FiboB().getFibonacciByIndexRecursive(memoN, new BigInteger[memoN + 1]));
+        Stopwatch.measure("fib(" + memoN + ")", 100, 1000, () -> fib(memoN));
+
+        for (int n = 1_000_000; n <= 10_000_000; n *= 10) {
+            int big = n;
+            Stopwatch.measure("fib(" + big + ")", 1, 3, () -> fib(big));
+        }
+
+        long huge = 1_000_000_000_000_000_000L;
+        Stopwatch.measure("fibMod(" + huge + ", 100000)", 1000, 10000, () -> fibMod(huge, 100_000));
+    }
+
+    //точное значение F(n), n>=0
+    public static BigInteger fib(int n) {
+        if (n < 0) throw new IllegalArgumentException("n < 0: " + n);
+        BigInteger a = BigInteger.ZERO; //F(k)
+        BigInteger b = BigInteger.ONE;  //F(k+1)
+        //идем по битам n от старшего к младшему, k удваивается на каждом шаге
+        for (int bit = 31 - Integer.numberOfLeadingZeros(n); bit >= 0; bit--) {
+            BigInteger c = a.multiply(b.shiftLeft(1).subtract(a)); //F(2k)
+            BigInteger d = a.multiply(a).add(b.multiply(b));      //F(2k+1)
+            if (((n >>> bit) & 1) == 0) {
+                a = c;
+                b = d;
+            } else {
+                a = d;
+                b = c.add(d);
+            }
+        }
+        return a;
+    }
+
+    //остаток F(n) mod m, n>=0, m>=1
+    public static long fibMod(long n, long m) {
+        if (n < 0) throw new IllegalArgumentException("n < 0: " + n);
+        if (m < 1) throw new IllegalArgumentException("m < 1: " + m);
+        if (m == 1) return 0;
+        long a = 0; //F(k) mod m
+        long b = 1; //F(k+1) mod m
+        for (int bit = 63 - Long.numberOfLeadingZeros(n); bit >= 0; bit--) {
+            long twoB = addMod(b, b, m);
+            long c = mulMod(a, subMod(twoB, a, m), m);   //F(2k)
+            long d = addMod(mulMod(a, a, m), mulMod(b, b, m), m); //F(2k+1)
+            if (((n >>> bit) & 1) == 0) {
+                a = c;
+                b = d;
+            } else {
+                a = d;
+                b = addMod(c, d, m);
+            }
+        }
+        return a;
+    }
+
+    //дальше все аргументы уже приведены в диапазон [0, m)
+    static long addMod(long a, long b, long m) {
+        return a >= m - b ? a - (m - b) : a + b;
+    }
+
+    static long subMod(long a, long b, long m) {
+        return a >= b ? a - b : a + (m - b);
+    }
+
+    static long mulMod(long a, long b, long m) {
+        if (m <= SAFE_MODULUS) return a * b % m;
+        //для больших модулей умножаем "в столбик" сложениями, чтобы не переполнить long
+        long result = 0;
+        while (b > 0) {
+            if ((b & 1) == 1) result = addMod(result, a, m);
+            a = addMod(a, a, m);
+            b >>>= 1;
+        }
+        return result;
+    }
+}
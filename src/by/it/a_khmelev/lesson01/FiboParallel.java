@@ -0,0 +1,112 @@
+package by.it.a_khmelev.lesson01;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Параллельный вариант быстрого удвоения из FiboDoubling.
+ * На каждом шаге нужны три независимых умножения:
+ *      F(k) * (2F(k+1) - F(k)),  F(k)^2,  F(k+1)^2
+ * два из них отдаются в ForkJoinPool, третье считается в текущем потоке.
+ * Пока числа короче THRESHOLD_BITS, накладные расходы на задачи больше выигрыша,
+ * и шаг выполняется последовательно.
+ */
+
+public class FiboParallel {
+
+    //BigInteger умножает по Карацубе с 80 int (2560 бит) и по Toom-Cook с 240 int (7680 бит);
+    //на 2^14 битах одно умножение - около 0.1 мс (замер на этой машине), в десятки раз дороже
+    //fork/join задачи, а на коротких числах шаг занимает микросекунды и задачи не окупаются
+    static final int THRESHOLD_BITS = 1 << 14;
+
+    public static void main(String[] args) {
+        int[] sizes = {1_000_000, 10_000_000};
+        if (args.length > 0) { //например 100000000 для n=10^8
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int n : sizes) {
+            Stopwatch watch = new Stopwatch();
+            BigInteger expected = FiboDoubling.fib(n);
+            System.out.printf("FiboDoubling.fib(%d) \t time=%s\n", n, watch);
+            //степени двойки и обязательно само число ядер (например 1, 2, 4, 6)
+            for (int threads = 1; threads <= cores; threads = threads < cores ? Math.min(2 * threads, cores) : cores + 1) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                watch.restart();
+                BigInteger value = fib(n, pool);
+                System.out.printf("fib(%d) threads=%d ok=%b \t time=%s\n", n, threads, value.equals(expected), watch);
+                pool.shutdown();
+            }
+            System.out.println();
+        }
+    }
+
+    public static BigInteger fib(int n) {
+        return fib(n, ForkJoinPool.commonPool());
+    }
+
+    public static BigInteger fib(int n, ForkJoinPool pool) {
+        if (n < 0) throw new IllegalArgumentException("n < 0: " + n);
+        return pool.invoke(new Doubling(n));
+    }
+
+    //весь проход по битам n выполняется внутри пула, чтобы fork() шел в его очереди
+    private static class Doubling extends RecursiveTask<BigInteger> {
+        private static final long serialVersionUID = 1L;
+
+        private final int n;
+
+        Doubling(int n) {
+            this.n = n;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            BigInteger a = BigInteger.ZERO; //F(k)
+            BigInteger b = BigInteger.ONE;  //F(k+1)
+            for (int bit = 31 - Integer.numberOfLeadingZeros(n); bit >= 0; bit--) {
+                BigInteger c;
+                BigInteger d;
+                if (b.bitLength() < THRESHOLD_BITS) {
+                    c = a.multiply(b.shiftLeft(1).subtract(a));
+                    d = a.multiply(a).add(b.multiply(b));
+                } else {
+                    ForkJoinTask<BigInteger> aa = new Multiply(a, a).fork();
+                    ForkJoinTask<BigInteger> bb = new Multiply(b, b).fork();
+                    c = a.multiply(b.shiftLeft(1).subtract(a));
+                    d = aa.join().add(bb.join());
+                }
+                if (((n >>> bit) & 1) == 0) {
+                    a = c;
+                    b = d;
+                } else {
+                    a = d;
+                    b = c.add(d);
+                }
+            }
+            return a;
+        }
+    }
+
+    private static class Multiply extends RecursiveTask<BigInteger> {
+        private static final long serialVersionUID = 1L;
+
+        private final BigInteger x;
+        private final BigInteger y;
+
+        Multiply(BigInteger x, BigInteger y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            return x.multiply(y);
+        }
+    }
+}
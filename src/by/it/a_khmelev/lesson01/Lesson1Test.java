@@ -3,6 +3,7 @@ package by.it.a_khmelev.lesson01;
 import org.junit.Test;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 
 import static org.junit.Assert.assertTrue;
 
@@ -41,4 +42,55 @@ public class Lesson1Test {
         assertTrue("fasterC failed 2", fibo.fasterC(1,2)==1L);
         assertTrue("fasterC failed 3", fibo.fasterC(999999999,321)==34L);
     }
+
+    @Test(timeout = 2000)
+    public void fiboDoubling() throws Exception {
+        FiboB fibo=new FiboB();
+        for (int n = 0; n < 300; n++) {
+            BigInteger exact=FiboDoubling.fib(n);
+            assertTrue("fib failed "+n, exact.equals(fibo.getFibonacciByIndexRecursive(n, new BigInteger[n + 1])));
+            long m=Long.MAX_VALUE-24;
+            assertTrue("fibMod failed "+n, FiboDoubling.fibMod(n, m)==exact.mod(BigInteger.valueOf(m)).longValue());
+        }
+    }
+
+    @Test(timeout = 2000)
+    public void pisanoPeriod() throws Exception {
+        for (int m = 2; m < 3000; m++) {
+            //наивный поиск периода по парам остатков
+            long period = 0;
+            int a = 0, b = 1;
+            do {
+                int c = (a + b) % m;
+                a = b;
+                b = c;
+                period++;
+            } while (a != 0 || b != 1);
+            assertTrue("period failed "+m, PisanoPeriod.period(m)==period);
+        }
+        FiboC fibo=new FiboC();
+        long[] res=fibo.fasterC(new long[]{10, 999999999, 1, 999999999}, new int[]{2, 321, 2, 10});
+        assertTrue("batch fasterC failed", Arrays.equals(res, new long[]{1, 34, 1, fibo.fasterC(999999999, 10)}));
+    }
+
+    @Test(timeout = 2000)
+    public void memoA() throws Exception {
+        FiboA fibo=new FiboA();
+        for (int n = 0; n <= 25; n++) {
+            assertTrue("memoCalc failed "+n, BigInteger.valueOf(fibo.memoCalc(n)).equals(fibo.slowA(n)));
+            assertTrue("memoA failed "+n, fibo.memoA(n).equals(fibo.slowA(n)));
+            assertTrue("iterA failed "+n, fibo.iterA(n).equals(fibo.slowA(n)));
+        }
+        //глубина, на которой обычная рекурсия упала бы со StackOverflowError
+        int n=100000;
+        assertTrue("memoCalc deep failed", fibo.memoCalc(n)==FiboDoubling.fib(n).longValue());
+        assertTrue("iterA deep failed", fibo.iterA(n).equals(FiboDoubling.fib(n)));
+    }
+
+    @Test(timeout = 5000)
+    public void fiboParallel() throws Exception {
+        for (int n : new int[]{0, 1, 2, 93, 55555, 300000}) {
+            assertTrue("parallel fib failed "+n, FiboParallel.fib(n).equals(FiboDoubling.fib(n)));
+        }
+    }
 }
@@ -0,0 +1,103 @@
+package by.it.a_khmelev.lesson01;
+
+import by.it.a_khmelev.Stopwatch;
+
+/*
+ * Период Пизано pi(m) - длина периода последовательности F(n) mod m.
+ * Вместо перебора пар остатков (до 6m шагов) период собирается из разложения m:
+ *      pi(m) = lcm(pi(p1^k1), pi(p2^k2), ...)
+ *      pi(p^k) = p^(k-1) * pi(p)
+ *      pi(2)=3, pi(5)=20,
+ *      pi(p) делит p-1, если p = +-1 (mod 5), иначе делит 2(p+1)
+ * для простого p перебираются только делители этой границы (проверка через FiboDoubling).
+ *
+ * Найденные периоды для m <= CACHE_LIMIT запоминаются в таблице int[],
+ * повторный запрос с тем же модулем стоит одно чтение массива.
+ */
+
+public class PisanoPeriod {
+
+    //по условию FiboC 2<=m<=1E5, этого хватает для таблицы
+    static final int CACHE_LIMIT = 100_000;
+
+    //0 - период еще не вычислен; pi(m) <= 6m, поэтому для m <= CACHE_LIMIT хватает int
+    private static final int[] cache = new int[CACHE_LIMIT + 1];
+
+    public static void main(String[] args) {
+        Stopwatch watch = new Stopwatch();
+        long periods = 0;
+        for (int m = 2; m <= CACHE_LIMIT; m++) {
+            periods += period(m);
+        }
+        System.out.printf("period(2..%d) sum=%d \n\t time=%s \n\n", CACHE_LIMIT, periods, watch);
+
+        watch.restart();
+        for (int m = 2; m <= CACHE_LIMIT; m++) {
+            periods -= period(m);
+        }
+        System.out.printf("period(2..%d) cached, check=%d \n\t time=%s \n\n", CACHE_LIMIT, periods, watch);
+    }
+
+    public static long period(int m) {
+        if (m < 1) throw new IllegalArgumentException("m < 1: " + m);
+        if (m <= CACHE_LIMIT) {
+            int cached = cache[m];
+            if (cached == 0) {
+                cached = (int) compute(m);
+                cache[m] = cached;
+            }
+            return cached;
+        }
+        return compute(m);
+    }
+
+    private static long compute(int m) {
+        if (m == 1) return 1;
+        long result = 1;
+        int rest = m;
+        for (int p = 2; (long) p * p <= rest; p++) {
+            if (rest % p == 0) {
+                long primePower = 1;
+                while (rest % p == 0) {
+                    rest /= p;
+                    primePower *= p;
+                }
+                result = lcm(result, primePower / p * primePeriod(p));
+            }
+        }
+        if (rest > 1) result = lcm(result, primePeriod(rest));
+        return result;
+    }
+
+    private static long primePeriod(int p) {
+        if (p == 2) return 3;
+        if (p == 5) return 20;
+        long bound = (p % 5 == 1 || p % 5 == 4) ? p - 1 : 2L * (p + 1);
+        //делители границы по возрастанию: сначала малые до корня, затем парные к ним
+        long root = (long) Math.sqrt((double) bound);
+        for (long d = 1; d <= root; d++) {
+            if (bound % d == 0 && isPeriod(d, p)) return d;
+        }
+        for (long d = root; d >= 1; d--) {
+            if (bound % d == 0 && isPeriod(bound / d, p)) return bound / d;
+        }
+        return bound; //сюда не попадаем: сама граница всегда является периодом
+    }
+
+    private static boolean isPeriod(long d, int p) {
+        return FiboDoubling.fibMod(d, p) == 0 && FiboDoubling.fibMod(d + 1, p) == 1;
+    }
+
+    private static long lcm(long a, long b) {
+        return a / gcd(a, b) * b;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -1,8 +1,12 @@
 package by.it.a_khmelev.lesson02;
 
+import by.it.a_khmelev.Stopwatch;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.function.DoubleConsumer;
 /*
 даны события events
 реализуйте метод calcStartTimes, так, чтобы число включений регистратора на
@@ -18,6 +22,32 @@ public class A_VideoRegistrator {
         double[] events=new double[]{1, 1.1, 1.6, 2.2, 2.4, 2.7, 3.9, 8.1, 9.1, 5.5, 3.7};
         List<Double> starts=instance.calcStartTimes(events,1); //рассчитаем моменты старта, с длинной сеанса 1
         System.out.println(starts);                            //покажем моменты старта
+        System.out.println(Arrays.toString(instance.calcStartTimesPrimitive(events, 1)));
+
+        //сравнение с List<Double> на большом наборе (каждый прогон сортирует свою копию)
+        Random random = new Random(1);
+        double[] big = new double[5_000_000];
+        for (int i = 0; i < big.length; i++) {
+            big[i] = random.nextDouble() * big.length;
+        }
+        Stopwatch.measure("calcStartTimes List<Double>", 2, 5, () -> instance.calcStartTimes(big.clone(), 1));
+        Stopwatch.measure("calcStartTimesPrimitive double[]", 2, 5, () -> instance.calcStartTimesPrimitive(big.clone(), 1));
+    }
+
+    //начиная с этого размера сортировка выполняется Arrays.parallelSort
+    static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+
+    //тот же жадный алгоритм, но без упаковки: результат double[], а не List<Double>
+    //events сортируется на месте, как и в calcStartTimes
+    double[] calcStartTimesPrimitive(double[] events, double workDuration) {
+        if (events.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(events);
+        } else {
+            Arrays.sort(events);
+        }
+        DoubleList result = new DoubleList();
+        cover(events, workDuration, result::add);
+        return result.toArray();
     }
     //модификаторы доступа опущены для возможности тестирования
     List<Double> calcStartTimes(double[] events, double workDuration)  {
@@ -25,21 +55,35 @@ public class A_VideoRegistrator {
         //timeWorkDuration время работы видеокамеры после старта
         List<Double> result;
         result = new ArrayList<>();
-        int i=0;                              //i - это индекс события events[i]
         //комментарии от проверочного решения сохранены для подсказки, но вы можете их удалить.
         //подготовка к жадному поглощению массива событий
         //hint: сортировка Arrays.sort обеспечит скорость алгоритма
         //C*(n log n) + C1*n = O(n log n)
 
-        //пока есть незарегистрированные события
-        //получим одно событие по левому краю
-        //и запомним время старта видеокамеры
-        //вычислим момент окончания работы видеокамеры
-        //и теперь пропустим все покрываемые события
-        //за время до конца работы, увеличивая индекс
-
+        Arrays.sort(events);
 
+        cover(events, workDuration, result::add);
 
         return result;                        //вернем итог
     }
+
+    //жадный проход по отсортированным events, общий для calcStartTimes и calcStartTimesPrimitive:
+    //моменты старта передаются в starts, поэтому формат результата у вариантов разный, а цикл один
+    static void cover(double[] events, double workDuration, DoubleConsumer starts) {
+        int i=0;                              //i - это индекс события events[i]
+        //пока есть незарегистрированные события
+        while (i < events.length) {
+            //получим одно событие по левому краю
+            //и запомним время старта видеокамеры
+            double start = events[i];
+            starts.accept(start);
+            //вычислим момент окончания работы видеокамеры
+            double stop = start + workDuration;
+            //и теперь пропустим все покрываемые события
+            //за время до конца работы, увеличивая индекс
+            while (i < events.length && events[i] <= stop) {
+                i++;
+            }
+        }
+    }
 }
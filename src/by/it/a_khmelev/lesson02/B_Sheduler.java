@@ -48,12 +48,17 @@ public class B_Sheduler {
         List<Event> result;
         result = new ArrayList<>();
         //ваше решение.
-
-
-
-
-
-
+        //жадно: среди подходящих событий берем то, что раньше всех заканчивается
+        //сортировка по концу выполняется в IntervalScheduler на массивах int[]
+        int[] starts = new int[events.length];
+        int[] stops = new int[events.length];
+        for (int i = 0; i < events.length; i++) {
+            starts[i] = events[i].start;
+            stops[i] = events[i].stop;
+        }
+        for (int i : IntervalScheduler.select(starts, stops, from, to)) {
+            result.add(events[i]);
+        }
         return result;                        //вернем итог
     }
 }
\ No newline at end of file
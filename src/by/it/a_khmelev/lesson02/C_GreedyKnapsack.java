@@ -12,12 +12,15 @@ package by.it.a_khmelev.lesson02;
 Необходимо собрать наиболее дорогой вариант рюкзака для этого объема
 Предметы можно резать на кусочки (т.е. алгоритм будет жадным)
  */
+import by.it.a_khmelev.Stopwatch;
+
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.Arrays;
 import java.util.Scanner;
 
 public class C_GreedyKnapsack {
-    private static class Item implements Comparable<Item> {
+    static class Item implements Comparable<Item> {
         int cost;
         int weight;
 
@@ -37,9 +40,9 @@ public class C_GreedyKnapsack {
         @Override
         public int compareTo(Item o) {
             //тут может быть ваш компаратор
-
-
-            return 0;
+            //по убыванию стоимости килограмма: cost/weight сравниваются перекрестным умножением,
+            //чтобы не терять точность на double
+            return Long.compare((long) o.cost * weight, (long) cost * o.weight);
         }
     }
 
@@ -67,27 +70,40 @@ public class C_GreedyKnapsack {
         //тут необходимо реализовать решение задачи
         //итогом является максимально воможная стоимость вещей в рюкзаке
         //вещи можно резать на кусочки (непрерывный рюкзак)
-        double result = 0;
         //тут реализуйте алгоритм сбора рюкзака
         //будет особенно хорошо, если с собственной сортировкой
         //кроме того, можете описать свой компаратор в классе Item
         //ваше решение.
-
-
-
-
-
+        double result = collect(items, W);
 
         System.out.printf("Удалось собрать рюкзак на сумму %f\n",result);
         return result;
     }
 
+    //сортировка по убыванию стоимости килограмма и жадный набор: O(n log n)
+    //линейный вариант без сортировки - FractionalKnapsack
+    static double collect(Item[] items, int W) {
+        Arrays.sort(items);
+        double result = 0;
+        int left = W;
+        for (Item item : items) {
+            if (left == 0) break;
+            if (item.weight <= left) {
+                result += item.cost;
+                left -= item.weight;
+            } else {
+                result += (double) item.cost * left / item.weight;
+                left = 0;
+            }
+        }
+        return result;
+    }
+
     public static void main(String[] args) throws FileNotFoundException {
-        long startTime = System.currentTimeMillis();
+        Stopwatch watch = new Stopwatch();
         String root=System.getProperty("user.dir")+"/src/";
         File f=new File(root+"by/it/a_khmelev/lesson02/greedyKnapsack.txt");
         double costFinal=new C_GreedyKnapsack().calc(f);
-        long finishTime = System.currentTimeMillis();
-        System.out.printf("Общая стоимость %f (время %d)",costFinal,finishTime - startTime);
+        System.out.printf("Общая стоимость %f (время %s)",costFinal,watch);
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package by.it.a_khmelev.lesson02;
+
+import java.util.Arrays;
+
+/*
+ * Растущий массив double без упаковки в Double.
+ * Аналог ArrayList<Double>, но каждый элемент занимает 8 байт, а не объект.
+ */
+
+public class DoubleList {
+
+    private double[] data;
+    private int size;
+
+    public DoubleList() {
+        this(16);
+    }
+
+    public DoubleList(int capacity) {
+        data = new double[Math.max(1, capacity)];
+    }
+
+    public void add(double value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size + (size >> 1) + 1); //рост в 1.5 раза
+        }
+        data[size++] = value;
+    }
+
+    public double get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index=" + index + " size=" + size);
+        return data[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public double[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(data[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,140 @@
+package by.it.a_khmelev.lesson02;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Непрерывный рюкзак за линейное (в среднем) время, без полной сортировки.
+ *
+ * Идея - поиск взвешенной медианы по стоимости килограмма (quickselect):
+ *  1. берем случайный опорный предмет p и делим предметы на три группы:
+ *     дороже p (H), такие же (E), дешевле (L) - сравнение cost/weight перекрестным умножением в long
+ *  2. если H не помещаются целиком - решаем задачу только для H
+ *  3. иначе берем все H, из E сколько влезет, и (если место осталось) решаем задачу для L
+ * На каждом шаге остается одна из частей, поэтому в среднем n + n/2 + n/4 + ... = O(n).
+ *
+ * Работает на параллельных массивах int[] cost/weight (см. KnapsackData), массивы переставляются на месте.
+ */
+
+public class FractionalKnapsack {
+
+    public static void main(String[] args) throws IOException {
+        int n = 10_000_000;
+        Random random = new Random(1);
+        int[] cost = new int[n];
+        int[] weight = new int[n];
+        for (int i = 0; i < n; i++) {
+            cost[i] = 1 + random.nextInt(1_000_000);
+            weight[i] = 1 + random.nextInt(1_000);
+        }
+        int capacity = n; //примерно пятая часть суммарного веса
+        Stopwatch.measure("FractionalKnapsack.solve(int[], int[])", 2, 5,
+                () -> solve(cost.clone(), weight.clone(), capacity));
+        Stopwatch.measure("C_GreedyKnapsack.collect(Item[])", 2, 5, () -> {
+            C_GreedyKnapsack.Item[] items = new C_GreedyKnapsack.Item[n];
+            for (int i = 0; i < n; i++) items[i] = new C_GreedyKnapsack.Item(cost[i], weight[i]);
+            return C_GreedyKnapsack.collect(items, capacity);
+        });
+
+        //чтение: Scanner против разбора байтов из FileChannel и двоичного формата
+        int m = 1_000_000;
+        File text = File.createTempFile("knapsack", ".txt");
+        File binary = File.createTempFile("knapsack", ".bin");
+        text.deleteOnExit();
+        binary.deleteOnExit();
+        try (PrintWriter out = new PrintWriter(text)) {
+            out.println(m + " " + capacity);
+            for (int i = 0; i < m; i++) out.println(cost[i] + " " + weight[i]);
+        }
+        KnapsackData.readText(text).writeBinary(binary);
+        Stopwatch.measure("Scanner", 1, 3, () -> {
+            try (Scanner scanner = new Scanner(text)) {
+                int count = scanner.nextInt();
+                long sum = scanner.nextInt();
+                for (int i = 0; i < 2 * count; i++) sum += scanner.nextInt();
+                return sum;
+            } catch (FileNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Stopwatch.measure("KnapsackData.readText", 1, 3, () -> read(text, false));
+        Stopwatch.measure("KnapsackData.readBinary", 1, 3, () -> read(binary, true));
+    }
+
+    private static KnapsackData read(File file, boolean binary) {
+        try {
+            return binary ? KnapsackData.readBinary(file) : KnapsackData.readText(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static double solve(KnapsackData data) {
+        return solve(data.cost.clone(), data.weight.clone(), data.capacity);
+    }
+
+    //максимальная стоимость рюкзака вместимостью capacity; cost и weight переставляются
+    static double solve(int[] cost, int[] weight, int capacity) {
+        double result = 0;
+        long left = capacity;
+        int lo = 0;
+        int hi = cost.length; //рассматриваются предметы [lo, hi)
+        while (lo < hi && left > 0) {
+            int p = lo + ThreadLocalRandom.current().nextInt(hi - lo);
+            long pivotCost = cost[p];
+            long pivotWeight = weight[p];
+            //разбиение на три части: [lo, lt) дороже, [lt, i) как опорный, [gt, hi) дешевле
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            long heavierWeight = 0;
+            long heavierCost = 0;
+            long equalWeight = 0;
+            long equalCost = 0;
+            while (i < gt) {
+                int cmp = Long.compare(cost[i] * pivotWeight, pivotCost * weight[i]);
+                if (cmp > 0) {
+                    heavierWeight += weight[i];
+                    heavierCost += cost[i];
+                    swap(cost, weight, lt++, i++);
+                } else if (cmp < 0) {
+                    swap(cost, weight, i, --gt);
+                } else {
+                    equalWeight += weight[i];
+                    equalCost += cost[i];
+                    i++;
+                }
+            }
+            if (heavierWeight > left) {
+                hi = lt; //все нужное среди более дорогих
+                continue;
+            }
+            result += heavierCost;
+            left -= heavierWeight;
+            if (equalWeight >= left) {
+                //у равных предметов одна цена килограмма, берем часть
+                return result + (double) equalCost * left / equalWeight;
+            }
+            result += equalCost;
+            left -= equalWeight;
+            lo = gt; //остаток места - среди более дешевых
+        }
+        return result;
+    }
+
+    private static void swap(int[] cost, int[] weight, int i, int j) {
+        int c = cost[i];
+        cost[i] = cost[j];
+        cost[j] = c;
+        int w = weight[i];
+        weight[i] = weight[j];
+        weight[j] = w;
+    }
+}
@@ -0,0 +1,173 @@
+package by.it.a_khmelev.lesson02;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Расписание интервальных событий (то же Event, что и в B_Sheduler).
+ *
+ * select        - одна аудитория, максимум непересекающихся событий (жадно по концу),
+ *                 работает на массивах int[] starts/stops, без объектов Event.
+ * assignRooms   - все события, минимум аудиторий (разбиение на интервалы):
+ *                 события по началу, min-куча моментов освобождения аудиторий.
+ * selectWeighted- одна аудитория, максимум суммарного веса:
+ *                 динамика по событиям, отсортированным по концу, + бинарный поиск
+ *                 последнего совместимого события.
+ * Начало и конец соседних событий могут совпадать (как в B_Sheduler).
+ */
+
+public class IntervalScheduler {
+
+    public static void main(String[] args) {
+        int n = 1_000_000;
+        Random random = new Random(1);
+        int[] starts = new int[n];
+        int[] stops = new int[n];
+        int[] weights = new int[n];
+        B_Sheduler.Event[] events = new B_Sheduler.Event[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = random.nextInt(10 * n);
+            stops[i] = starts[i] + 1 + random.nextInt(100);
+            weights[i] = 1 + random.nextInt(1000);
+            events[i] = new B_Sheduler.Event(starts[i], stops[i]);
+        }
+        B_Sheduler sheduler = new B_Sheduler();
+        Stopwatch.measure("B_Sheduler.calcStartTimes(Event[])", 2, 5,
+                () -> sheduler.calcStartTimes(events, 0, Integer.MAX_VALUE));
+        Stopwatch.measure("select(int[], int[])", 2, 5, () -> select(starts, stops, 0, Integer.MAX_VALUE));
+        Stopwatch.measure("assignRooms(Event[])", 2, 5, () -> assignRooms(events));
+        Stopwatch.measure("selectWeighted(Event[], int[])", 2, 5, () -> selectWeighted(events, weights));
+    }
+
+    //индексы выбранных событий в порядке времени; учитываются только события внутри [from, to]
+    public static int[] select(int[] starts, int[] stops, int from, int to) {
+        if (starts.length != stops.length) throw new IllegalArgumentException("starts.length != stops.length");
+        long[] order = sortedByKey(stops);
+        int[] result = new int[starts.length];
+        int count = 0;
+        long free = from; //аудитория свободна с этого момента
+        for (long key : order) {
+            int i = (int) key;
+            if (starts[i] >= free && stops[i] <= to) {
+                result[count++] = i;
+                free = stops[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    //номер аудитории (с 0) для каждого события, аудиторий использовано max+1
+    public static int[] assignRooms(B_Sheduler.Event[] events) {
+        int n = events.length;
+        int[] starts = new int[n];
+        for (int i = 0; i < n; i++) starts[i] = events[i].start;
+        long[] order = sortedByKey(starts);
+        int[] room = new int[n];
+        //min-куча по моменту освобождения: ключ (stop << 32 | номер аудитории)
+        long[] heap = new long[n];
+        int size = 0;
+        int rooms = 0;
+        for (long key : order) {
+            int i = (int) key;
+            B_Sheduler.Event event = events[i];
+            int r;
+            if (size > 0 && (int) (heap[0] >> 32) <= event.start) {
+                r = (int) heap[0];
+                heap[0] = pack(event.stop, r);
+                siftDown(heap, size, 0);
+            } else {
+                r = rooms++;
+                heap[size] = pack(event.stop, r);
+                siftUp(heap, size++);
+            }
+            room[i] = r;
+        }
+        return room;
+    }
+
+    //набор непересекающихся событий с максимальной суммой weights
+    public static List<B_Sheduler.Event> selectWeighted(B_Sheduler.Event[] events, int[] weights) {
+        if (events.length != weights.length) throw new IllegalArgumentException("events.length != weights.length");
+        int n = events.length;
+        int[] stops = new int[n];
+        for (int i = 0; i < n; i++) stops[i] = events[i].stop;
+        long[] order = sortedByKey(stops);
+        int[] sortedStops = new int[n];
+        for (int j = 0; j < n; j++) sortedStops[j] = stops[(int) order[j]];
+        //best[j] - максимальный вес среди первых j событий по концу
+        long[] best = new long[n + 1];
+        int[] previous = new int[n]; //сколько событий заканчивается не позже начала j-го
+        for (int j = 0; j < n; j++) {
+            B_Sheduler.Event event = events[(int) order[j]];
+            previous[j] = upperBound(sortedStops, j, event.start);
+            best[j + 1] = Math.max(best[j], best[previous[j]] + weights[(int) order[j]]);
+        }
+        //восстановление ответа с конца
+        List<B_Sheduler.Event> result = new ArrayList<>();
+        for (int j = n; j > 0; ) {
+            if (best[j] == best[j - 1]) {
+                j--;
+            } else {
+                result.add(events[(int) order[j - 1]]);
+                j = previous[j - 1];
+            }
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    //индексы, упорядоченные по key (при равенстве - по индексу): младшие 32 бита - индекс
+    static long[] sortedByKey(int[] key) {
+        long[] order = new long[key.length];
+        for (int i = 0; i < key.length; i++) {
+            order[i] = pack(key[i], i);
+        }
+        Arrays.sort(order);
+        return order;
+    }
+
+    private static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    //число элементов a[0..length) не больше value
+    private static int upperBound(int[] a, int length, int value) {
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        long value = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    private static void siftDown(long[] heap, int size, int i) {
+        long value = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (value <= heap[child]) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+}
@@ -0,0 +1,103 @@
+package by.it.a_khmelev.lesson02;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Подготовленный каталог для многих запросов непрерывного рюкзака с разной вместимостью.
+ *
+ * Предметы один раз сортируются по убыванию стоимости килограмма (компаратор C_GreedyKnapsack.Item)
+ * и превращаются в префиксные суммы весов и стоимостей.
+ * Жадный рюкзак вместимостью W - это целиком первые k предметов (последний префикс с весом <= W)
+ * плюс часть (k+1)-го, поэтому запрос - один бинарный поиск: O(log n) вместо чтения и сортировки.
+ */
+
+public class KnapsackCatalog {
+
+    private final long[] prefixWeight; //prefixWeight[k] - суммарный вес первых k предметов
+    private final long[] prefixCost;
+    private final int[] cost;          //предметы в порядке сортировки
+    private final int[] weight;
+
+    KnapsackCatalog(int[] cost, int[] weight) {
+        if (cost.length != weight.length) throw new IllegalArgumentException("cost.length != weight.length");
+        int n = cost.length;
+        C_GreedyKnapsack.Item[] items = new C_GreedyKnapsack.Item[n];
+        for (int i = 0; i < n; i++) {
+            items[i] = new C_GreedyKnapsack.Item(cost[i], weight[i]);
+        }
+        Arrays.sort(items);
+        this.cost = new int[n];
+        this.weight = new int[n];
+        prefixWeight = new long[n + 1];
+        prefixCost = new long[n + 1];
+        for (int i = 0; i < n; i++) {
+            this.cost[i] = items[i].cost;
+            this.weight[i] = items[i].weight;
+            prefixWeight[i + 1] = prefixWeight[i] + items[i].weight;
+            prefixCost[i + 1] = prefixCost[i] + items[i].cost;
+        }
+    }
+
+    static KnapsackCatalog load(File source) throws IOException {
+        KnapsackData data = KnapsackData.readText(source);
+        return new KnapsackCatalog(data.cost, data.weight);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String root = System.getProperty("user.dir") + "/src/";
+        KnapsackCatalog sample = load(new File(root + "by/it/a_khmelev/lesson02/greedyKnapsack.txt"));
+        System.out.println(Arrays.toString(sample.maxCost(new int[]{0, 4, 20, 60, 1000})));
+
+        int n = 1_000_000;
+        Random random = new Random(1);
+        int[] cost = new int[n];
+        int[] weight = new int[n];
+        for (int i = 0; i < n; i++) {
+            cost[i] = 1 + random.nextInt(1_000_000);
+            weight[i] = 1 + random.nextInt(1_000);
+        }
+        int[] capacities = new int[100_000];
+        for (int i = 0; i < capacities.length; i++) {
+            capacities[i] = random.nextInt(n * 500);
+        }
+        Stopwatch watch = new Stopwatch();
+        KnapsackCatalog catalog = new KnapsackCatalog(cost, weight);
+        System.out.printf("prepare %d items \n\t time=%s \n\n", n, watch);
+        Stopwatch.measure(capacities.length + " queries on catalog", 2, 5, () -> catalog.maxCost(capacities));
+        Stopwatch.measure("1 query via FractionalKnapsack.solve", 2, 5,
+                () -> FractionalKnapsack.solve(cost.clone(), weight.clone(), capacities[0]));
+    }
+
+    //максимальная стоимость рюкзака вместимостью capacity
+    public double maxCost(int capacity) {
+        if (capacity <= 0) return 0;
+        //k - число предметов, которые помещаются целиком
+        int lo = 0;
+        int hi = prefixWeight.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (prefixWeight[mid] <= capacity) lo = mid;
+            else hi = mid - 1;
+        }
+        int k = lo;
+        double result = prefixCost[k];
+        if (k < cost.length) {
+            result += (double) cost[k] * (capacity - prefixWeight[k]) / weight[k];
+        }
+        return result;
+    }
+
+    //пакетный запрос: result[i] = maxCost(capacities[i])
+    public double[] maxCost(int[] capacities) {
+        double[] result = new double[capacities.length];
+        for (int i = 0; i < capacities.length; i++) {
+            result[i] = maxCost(capacities[i]);
+        }
+        return result;
+    }
+}
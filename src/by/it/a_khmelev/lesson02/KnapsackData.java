@@ -0,0 +1,132 @@
+package by.it.a_khmelev.lesson02;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Набор предметов для рюкзака в параллельных массивах cost[i], weight[i] (без объектов Item).
+ *
+ * readText   - тот же текстовый формат, что читает C_GreedyKnapsack через Scanner
+ *              ("n W" и затем n пар "cost weight"), но разбор идет прямо по байтам из FileChannel.
+ * readBinary/writeBinary - двоичный формат: int n, int W, затем n пар int (big-endian),
+ *              для больших каталогов, которые читаются многократно.
+ */
+
+public class KnapsackData {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    final int capacity;
+    final int[] cost;
+    final int[] weight;
+
+    KnapsackData(int capacity, int[] cost, int[] weight) {
+        if (cost.length != weight.length) throw new IllegalArgumentException("cost.length != weight.length");
+        this.capacity = capacity;
+        this.cost = cost;
+        this.weight = weight;
+    }
+
+    static KnapsackData readText(File source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            IntParser parser = new IntParser(channel);
+            int n = parser.next();
+            int capacity = parser.next();
+            int[] cost = new int[n];
+            int[] weight = new int[n];
+            for (int i = 0; i < n; i++) {
+                cost[i] = parser.next();
+                weight[i] = parser.next();
+            }
+            return new KnapsackData(capacity, cost, weight);
+        }
+    }
+
+    static KnapsackData readBinary(File source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.limit(0); //буфер пуст, читаем по мере надобности
+            fill(channel, buffer, 8);
+            int n = buffer.getInt();
+            int capacity = buffer.getInt();
+            int[] cost = new int[n];
+            int[] weight = new int[n];
+            for (int i = 0; i < n; i++) {
+                fill(channel, buffer, 8);
+                cost[i] = buffer.getInt();
+                weight[i] = buffer.getInt();
+            }
+            return new KnapsackData(capacity, cost, weight);
+        }
+    }
+
+    void writeBinary(File target) throws IOException {
+        try (FileChannel channel = FileChannel.open(target.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(cost.length).putInt(capacity);
+            for (int i = 0; i < cost.length; i++) {
+                if (buffer.remaining() < 8) drain(channel, buffer);
+                buffer.putInt(cost[i]).putInt(weight[i]);
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    //гарантирует, что в буфере (в режиме чтения) есть хотя бы need байт
+    private static void fill(FileChannel channel, ByteBuffer buffer, int need) throws IOException {
+        if (buffer.remaining() >= need) return;
+        buffer.compact();
+        while (buffer.position() < need) {
+            if (channel.read(buffer) < 0) throw new IOException("unexpected end of file");
+        }
+        buffer.flip();
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    //разбор целых чисел, разделенных пробельными символами, прямо из байтов канала
+    private static class IntParser {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        IntParser(FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        int next() throws IOException {
+            int c = read();
+            while (c == ' ' || c == '\n' || c == '\r' || c == '\t') c = read();
+            if (c < 0) throw new IOException("unexpected end of file");
+            boolean negative = c == '-';
+            if (negative) c = read();
+            if (c < '0' || c > '9') throw new IOException("number expected, got '" + (char) c + "'");
+            int value = 0;
+            while (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                c = read();
+            }
+            return negative ? -value : value;
+        }
+
+        private int read() throws IOException {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                if (channel.read(buffer) <= 0) {
+                    buffer.limit(0);
+                    return -1;
+                }
+                buffer.flip();
+            }
+            return buffer.get();
+        }
+    }
+}
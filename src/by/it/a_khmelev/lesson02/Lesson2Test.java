@@ -3,7 +3,10 @@ package by.it.a_khmelev.lesson02;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.DoubleStream;
 
 import static org.junit.Assert.assertTrue;
 
@@ -27,6 +30,14 @@ public class Lesson2Test {
         assertTrue("slowA failed", ok);
     }
 
+    @Test
+    public void A_VideoRegistratorPrimitive() {
+        A_VideoRegistrator instance=new A_VideoRegistrator();
+        double[] events=new double[]{1, 1.1, 1.6, 2.2, 2.4, 2.7, 3.9, 8.1, 9.1, 5.5, 3.7};
+        double[] primitive=instance.calcStartTimesPrimitive(events,1);
+        assertTrue("calcStartTimesPrimitive failed", Arrays.toString(primitive).equals("[1.0, 2.2, 3.7, 5.5, 8.1]"));
+    }
+
     @Test
     public void B_Sheduler() {
         B_Sheduler instance = new B_Sheduler();
@@ -51,4 +62,89 @@ public class Lesson2Test {
         assertTrue("B_Sheduler failed", ok);
     }
 
+    @Test
+    public void StreamingVideoRegistrator() {
+        double[] events=new double[]{1, 1.1, 1.6, 2.2, 2.4, 2.7, 3.9, 8.1, 9.1, 5.5, 3.7};
+        //окна из 4 событий хватает, чтобы упорядочить опоздавшие 5.5 и 3.7
+        DoubleList starts=StreamingVideoRegistrator.calcStartTimes(DoubleStream.of(events), 1, 4);
+        assertTrue("StreamingVideoRegistrator failed", starts.toString().equals("[1.0, 2.2, 3.7, 5.5, 8.1]"));
+        //без окна опоздавшие события получают свой сеанс, но остаются зарегистрированными
+        starts=StreamingVideoRegistrator.calcStartTimes(DoubleStream.of(events), 1, 0);
+        assertTrue("StreamingVideoRegistrator late failed", starts.toString().equals("[1.0, 2.2, 3.9, 8.1, 5.5, 3.7]"));
+    }
+
+    @Test
+    public void IntervalScheduler() {
+        B_Sheduler.Event[] events = {new B_Sheduler.Event(0, 3), new B_Sheduler.Event(1, 4), new B_Sheduler.Event(3, 5),
+                new B_Sheduler.Event(4, 6), new B_Sheduler.Event(5, 7), new B_Sheduler.Event(0, 7)};
+        int[] rooms=IntervalScheduler.assignRooms(events);
+        assertTrue("assignRooms failed", Arrays.toString(rooms).equals("[0, 2, 0, 2, 0, 1]"));
+        int[] weights={2, 4, 4, 1, 3, 8};
+        List<B_Sheduler.Event> best=IntervalScheduler.selectWeighted(events, weights);
+        assertTrue("selectWeighted failed", best.toString().equals("[(0:3), (3:5), (5:7)]"));
+        weights[5]=10;
+        best=IntervalScheduler.selectWeighted(events, weights);
+        assertTrue("selectWeighted failed", best.toString().equals("[(0:7)]"));
+    }
+
+    @Test
+    public void OnlineSheduler() {
+        Random random=new Random(7);
+        B_Sheduler instance = new B_Sheduler();
+        OnlineSheduler online=new OnlineSheduler(5, 95);
+        B_Sheduler.Event[] events=new B_Sheduler.Event[400];
+        for (int i = 0; i < events.length; i++) {
+            int start=random.nextInt(100);
+            events[i]=new B_Sheduler.Event(start, start+random.nextInt(8));
+            online.insert(events[i]);
+            List<B_Sheduler.Event> expected=instance.calcStartTimes(Arrays.copyOf(events, i+1), 5, 95);
+            assertTrue("OnlineSheduler failed at "+i, online.schedule().equals(expected));
+        }
+    }
+
+    @Test
+    public void FractionalKnapsack() throws Exception {
+        String root=System.getProperty("user.dir")+"/src/";
+        KnapsackData data=KnapsackData.readText(new File(root+"by/it/a_khmelev/lesson02/greedyKnapsack.txt"));
+        assertTrue("FractionalKnapsack failed", FractionalKnapsack.solve(data)==200);
+        Random random=new Random(3);
+        for (int test = 0; test < 200; test++) {
+            int n=1+random.nextInt(50);
+            int[] cost=new int[n];
+            int[] weight=new int[n];
+            C_GreedyKnapsack.Item[] items=new C_GreedyKnapsack.Item[n];
+            for (int i = 0; i < n; i++) {
+                cost[i]=random.nextInt(20);
+                weight[i]=1+random.nextInt(10);
+                items[i]=new C_GreedyKnapsack.Item(cost[i], weight[i]);
+            }
+            int capacity=random.nextInt(5*n);
+            double expected=C_GreedyKnapsack.collect(items, capacity);
+            assertTrue("FractionalKnapsack failed "+test, Math.abs(FractionalKnapsack.solve(cost, weight, capacity)-expected)<1e-9);
+        }
+    }
+
+    @Test
+    public void KnapsackCatalog() throws Exception {
+        String root=System.getProperty("user.dir")+"/src/";
+        KnapsackCatalog catalog=KnapsackCatalog.load(new File(root+"by/it/a_khmelev/lesson02/greedyKnapsack.txt"));
+        assertTrue("KnapsackCatalog failed", catalog.maxCost(60)==200);
+        Random random=new Random(5);
+        int n=40;
+        int[] cost=new int[n];
+        int[] weight=new int[n];
+        for (int i = 0; i < n; i++) {
+            cost[i]=random.nextInt(100);
+            weight[i]=1+random.nextInt(10);
+        }
+        catalog=new KnapsackCatalog(cost, weight);
+        int[] capacities=new int[300];
+        for (int i = 0; i < capacities.length; i++) capacities[i]=i;
+        double[] result=catalog.maxCost(capacities);
+        for (int capacity : capacities) {
+            double expected=FractionalKnapsack.solve(cost.clone(), weight.clone(), capacity);
+            assertTrue("KnapsackCatalog failed "+capacity, Math.abs(result[capacity]-expected)<1e-6);
+        }
+    }
+
 }
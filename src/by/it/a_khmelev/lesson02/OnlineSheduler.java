@@ -0,0 +1,231 @@
+package by.it.a_khmelev.lesson02;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/*
+ * Онлайн-вариант B_Sheduler: события добавляются по одному,
+ * оптимальное расписание (то же, что дал бы calcStartTimes на всех событиях) доступно в любой момент.
+ *
+ * Порядок жадного алгоритма - ключ (stop, номер вставки). Выбранные события хранятся в TreeMap
+ * по этому ключу, а все подходящие по [from, to] события - в индексе StartIndex: дерево поиска
+ * по тому же ключу (декартово, со случайными приоритетами), где в каждой вершине
+ * хранится наибольший start поддерева. Запрос "первое событие после ключа k с start >= t"
+ * спускается по дереву, пропуская поддеревья с максимумом меньше t, - O(log n) в среднем
+ * независимо от того, сколько событий между k и ответом (линейный просмотр здесь давал O(n)).
+ *
+ * Новое событие меняет ответ, только если оно заканчивается раньше очередного выбранного
+ * и помещается после предыдущего выбранного (два поиска в дереве, O(log n)).
+ * Тогда цепочка выбора пересчитывается от нового события до первого совпадения со старой цепочкой,
+ * O(log n) на каждое изменившееся выбранное событие. Вставка стоит O((c + 1) log n), где c - число
+ * изменений в ответе; c может быть и порядка n (одно раннее событие сдвигает всю цепочку
+ * на чередующиеся события), но тогда столько же меняется и сам ответ.
+ */
+
+public class OnlineSheduler {
+
+    private final int from;
+    private final int to;
+    private final StartIndex events = new StartIndex();
+    private final TreeMap<Long, B_Sheduler.Event> chosen = new TreeMap<>();
+    private int inserted;
+
+    public OnlineSheduler(int from, int to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public static void main(String[] args) {
+        int n = 100_000;
+        Random random = new Random(1);
+        B_Sheduler.Event[] stream = new B_Sheduler.Event[n];
+        for (int i = 0; i < n; i++) {
+            int start = random.nextInt(10 * n);
+            stream[i] = new B_Sheduler.Event(start, start + 1 + random.nextInt(100));
+        }
+        online("random", stream);
+
+        //худший случай для линейного поиска: n/2 длинных событий, которые никогда не подходят,
+        //и n/2 вставок с убывающим концом - каждая ищет продолжение цепочки за всеми длинными
+        int s = n / 2;
+        B_Sheduler.Event[] worst = new B_Sheduler.Event[2 * s];
+        for (int i = 0; i < s; i++) worst[i] = new B_Sheduler.Event(s, 10 * s + i);
+        for (int j = 0; j < s; j++) worst[s + j] = new B_Sheduler.Event(0, 2 * s - j);
+        online("worst case", worst);
+
+        //пересчет с нуля слишком долог для запроса после каждой вставки, поэтому только каждые 1000
+        int step = 1000;
+        B_Sheduler sheduler = new B_Sheduler();
+        Stopwatch watch = new Stopwatch();
+        int last = 0;
+        for (int i = step; i <= n; i += step) {
+            last = sheduler.calcStartTimes(Arrays.copyOf(stream, i), 0, Integer.MAX_VALUE).size();
+        }
+        System.out.printf("calcStartTimes from scratch: %d queries, last=%d \n\t time=%s \n\n", n / step, last, watch);
+    }
+
+    private static void online(String name, B_Sheduler.Event[] stream) {
+        Stopwatch watch = new Stopwatch();
+        OnlineSheduler online = new OnlineSheduler(0, Integer.MAX_VALUE);
+        long answers = 0;
+        for (B_Sheduler.Event event : stream) {
+            online.insert(event);
+            answers += online.size(); //запрос после каждой вставки
+        }
+        System.out.printf("online, %s: %d inserts + %d queries, last=%d (sum=%d) \n\t time=%s \n\n",
+                name, stream.length, stream.length, online.size(), answers, watch);
+    }
+
+    public void insert(B_Sheduler.Event event) {
+        long key = pack(event.stop, inserted++);
+        //события вне [from, to] никогда не выбираются и в индекс не попадают
+        if (event.start < from || event.stop > to) return;
+        events.insert(key, event);
+        Map.Entry<Long, B_Sheduler.Event> previous = chosen.lowerEntry(key);
+        int free = previous == null ? from : previous.getValue().stop;
+        if (event.start < free) return; //не помещается после предыдущего выбранного
+        Long next = chosen.higherKey(key);
+        if (next != null && chosen.get(next).start >= event.stop) {
+            chosen.put(key, event); //встало в свободный промежуток, остальное не меняется
+            return;
+        }
+        chosen.put(key, event);
+        relink(key, event);
+    }
+
+    //оптимальное расписание на текущий момент, в порядке времени
+    public List<B_Sheduler.Event> schedule() {
+        return new ArrayList<>(chosen.values());
+    }
+
+    public int size() {
+        return chosen.size();
+    }
+
+    //перестроить цепочку выбора после key до совпадения со старой цепочкой
+    private void relink(long key, B_Sheduler.Event current) {
+        while (true) {
+            int candidate = events.firstAfter(key, current.stop);
+            Map.Entry<Long, B_Sheduler.Event> old = chosen.higherEntry(key);
+            //старые выбранные события раньше нового кандидата больше не совместимы
+            while (old != null && (candidate == StartIndex.NIL || old.getKey() < events.key(candidate))) {
+                chosen.remove(old.getKey());
+                old = chosen.higherEntry(key);
+            }
+            if (candidate == StartIndex.NIL || old != null && old.getKey() == events.key(candidate)) return;
+            key = events.key(candidate);
+            current = events.event(candidate);
+            chosen.put(key, current);
+        }
+    }
+
+    private static long pack(int stop, int order) {
+        return ((long) stop << 32) | (order & 0xFFFFFFFFL);
+    }
+
+    //подходящие события в порядке (stop, номер вставки) с наибольшим start в каждом поддереве
+    private static class StartIndex {
+        static final int NIL = 0;
+
+        private final Random random = new Random(1);
+        private long[] key = new long[16];
+        private int[] start = new int[16];
+        private int[] maxStart = new int[16];
+        private int[] priority = new int[16];
+        private int[] left = new int[16];
+        private int[] right = new int[16];
+        private B_Sheduler.Event[] event = new B_Sheduler.Event[16];
+        private int size;   //вершины 1..size, 0 - пустое поддерево
+        private int root = NIL;
+
+        StartIndex() {
+            maxStart[NIL] = Integer.MIN_VALUE;
+        }
+
+        long key(int node) {
+            return key[node];
+        }
+
+        B_Sheduler.Event event(int node) {
+            return event[node];
+        }
+
+        void insert(long k, B_Sheduler.Event e) {
+            if (++size == key.length) grow();
+            key[size] = k;
+            start[size] = e.start;
+            maxStart[size] = e.start;
+            priority[size] = random.nextInt();
+            event[size] = e;
+            root = insert(root, size);
+        }
+
+        private int insert(int t, int node) {
+            if (t == NIL) return node;
+            if (key[node] < key[t]) {
+                left[t] = insert(left[t], node);
+                if (priority[left[t]] > priority[t]) return rotateRight(t);
+            } else {
+                right[t] = insert(right[t], node);
+                if (priority[right[t]] > priority[t]) return rotateLeft(t);
+            }
+            update(t);
+            return t;
+        }
+
+        private int rotateRight(int t) {
+            int l = left[t];
+            left[t] = right[l];
+            right[l] = t;
+            update(t);
+            update(l);
+            return l;
+        }
+
+        private int rotateLeft(int t) {
+            int r = right[t];
+            right[t] = left[r];
+            left[r] = t;
+            update(t);
+            update(r);
+            return r;
+        }
+
+        private void update(int t) {
+            maxStart[t] = Math.max(start[t], Math.max(maxStart[left[t]], maxStart[right[t]]));
+        }
+
+        //первая вершина с ключом > k и start >= time, или NIL
+        int firstAfter(long k, int time) {
+            return firstAfter(root, k, time);
+        }
+
+        //поддеревья с maxStart < time отсекаются сразу, поэтому спуск идет
+        //вдоль пути поиска k и одного пути к ответу - O(глубины)
+        private int firstAfter(int t, long k, int time) {
+            if (t == NIL || maxStart[t] < time) return NIL;
+            if (key[t] <= k) return firstAfter(right[t], k, time);
+            int found = firstAfter(left[t], k, time);
+            if (found != NIL) return found;
+            if (start[t] >= time) return t;
+            return firstAfter(right[t], k, time);
+        }
+
+        private void grow() {
+            int capacity = key.length * 2;
+            key = Arrays.copyOf(key, capacity);
+            start = Arrays.copyOf(start, capacity);
+            maxStart = Arrays.copyOf(maxStart, capacity);
+            priority = Arrays.copyOf(priority, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            event = Arrays.copyOf(event, capacity);
+        }
+    }
+}
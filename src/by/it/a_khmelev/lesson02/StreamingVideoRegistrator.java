@@ -0,0 +1,149 @@
+package by.it.a_khmelev.lesson02;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+
+/*
+ * Потоковый вариант A_VideoRegistrator.calcStartTimes.
+ * События приходят по одному (уже упорядоченные по времени), весь массив в памяти не нужен,
+ * моменты старта регистратора отдаются сразу, как только становятся известны.
+ *
+ * Жадный шаг тот же: первое непокрытое событие - старт, все события до start+workDuration покрыты.
+ *
+ * Для почти упорядоченных потоков есть окно переупорядочивания reorderWindow:
+ * события сначала попадают в min-кучу из reorderWindow элементов и обрабатываются
+ * по возрастанию, когда куча заполнена. Память O(reorderWindow) при любой длине потока.
+ * Событие, опоздавшее сильнее окна и не покрытое текущим сеансом, получает отдельный сеанс:
+ * все события по-прежнему зарегистрированы, но число включений может быть не минимальным.
+ */
+
+public class StreamingVideoRegistrator implements DoubleConsumer {
+
+    private final double workDuration;
+    private final DoubleConsumer starts;
+
+    //min-куча окна переупорядочивания
+    private final double[] window;
+    private int windowSize;
+
+    private double sessionStart = Double.NEGATIVE_INFINITY;
+    private double sessionStop = Double.NEGATIVE_INFINITY;
+    private double last = Double.NEGATIVE_INFINITY;
+    private long lateEvents;
+
+    public StreamingVideoRegistrator(double workDuration, DoubleConsumer starts) {
+        this(workDuration, 0, starts);
+    }
+
+    public StreamingVideoRegistrator(double workDuration, int reorderWindow, DoubleConsumer starts) {
+        if (reorderWindow < 0) throw new IllegalArgumentException("reorderWindow < 0: " + reorderWindow);
+        this.workDuration = workDuration;
+        this.window = new double[reorderWindow];
+        this.starts = starts;
+    }
+
+    public static void main(String[] args) {
+        double[] events = new double[]{1, 1.1, 1.6, 2.2, 2.4, 2.7, 3.9, 8.1, 9.1, 5.5, 3.7};
+        System.out.println(calcStartTimes(DoubleStream.of(events), 1, 4));
+
+        //длинный поток: ~10^8 событий, сгенерированных на лету, в памяти только результат
+        long count = 100_000_000L;
+        Random random = new Random(1);
+        Stopwatch watch = new Stopwatch();
+        DoubleList result = calcStartTimes(
+                DoubleStream.iterate(0, t -> t + random.nextDouble() * 0.1).limit(count), 1, 0);
+        System.out.printf("events=%d starts=%d \n\t time=%s \n\n", count, result.size(), watch);
+    }
+
+    public static DoubleList calcStartTimes(DoubleStream events, double workDuration, int reorderWindow) {
+        return calcStartTimes(events.iterator(), workDuration, reorderWindow);
+    }
+
+    public static DoubleList calcStartTimes(PrimitiveIterator.OfDouble events, double workDuration, int reorderWindow) {
+        DoubleList result = new DoubleList();
+        StreamingVideoRegistrator registrator = new StreamingVideoRegistrator(workDuration, reorderWindow, result::add);
+        while (events.hasNext()) {
+            registrator.accept(events.nextDouble());
+        }
+        registrator.flush();
+        return result;
+    }
+
+    //очередное событие из потока
+    @Override
+    public void accept(double event) {
+        if (window.length == 0) {
+            register(event);
+            return;
+        }
+        if (windowSize == window.length) {
+            //окно заполнено: самое раннее событие уже не может обогнать остальные
+            if (event <= window[0]) {
+                register(event);
+                return;
+            }
+            register(window[0]);
+            window[0] = event;
+            siftDown(0);
+        } else {
+            window[windowSize] = event;
+            siftUp(windowSize++);
+        }
+    }
+
+    //конец потока (или пауза): обработать все, что осталось в окне
+    public void flush() {
+        while (windowSize > 0) {
+            register(window[0]);
+            window[0] = window[--windowSize];
+            siftDown(0);
+        }
+    }
+
+    //сколько событий пришло позже, чем позволяет окно
+    public long lateEvents() {
+        return lateEvents;
+    }
+
+    private void register(double event) {
+        if (event < last) {
+            lateEvents++;
+            if (event < sessionStart) starts.accept(event); //отдельный сеанс для опоздавшего
+            return;
+        }
+        last = event;
+        if (event > sessionStop) {
+            sessionStart = event;
+            sessionStop = event + workDuration;
+            starts.accept(event);
+        }
+    }
+
+    private void siftUp(int i) {
+        double value = window[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (window[parent] <= value) break;
+            window[i] = window[parent];
+            i = parent;
+        }
+        window[i] = value;
+    }
+
+    private void siftDown(int i) {
+        double value = window[i];
+        int half = windowSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < windowSize && window[child + 1] < window[child]) child++;
+            if (value <= window[child]) break;
+            window[i] = window[child];
+            i = child;
+        }
+        window[i] = value;
+    }
+}
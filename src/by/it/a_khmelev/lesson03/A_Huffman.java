@@ -1,5 +1,7 @@
 package by.it.a_khmelev.lesson03;
 
+import by.it.a_khmelev.Stopwatch;
+
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.*;
@@ -115,26 +117,49 @@ public class A_Huffman {
         //прочитаем строку для кодирования из тестового файла
         Scanner scanner = new Scanner(file);
         String s = scanner.next();
+        return encode(s);
+    }
 
+    String encode(String s) {
         //все комментарии от тестового решения были оставлены т.к. это задание A.
         //если они вам мешают их можно удалить
 
         Map<Character, Integer> count = new HashMap<>();
         //1. переберем все символы по очереди и рассчитаем их частоту в Map count
             //для каждого символа добавим 1 если его в карте еще нет или инкремент если есть.
+        for (int i = 0; i < s.length(); i++) {
+            count.merge(s.charAt(i), 1, Integer::sum);
+        }
 
         //2. перенесем все символы в приоритетную очередь в виде листьев
         PriorityQueue<Node> priorityQueue = new PriorityQueue<>();
+        for (Map.Entry<Character, Integer> entry : count.entrySet()) {
+            priorityQueue.add(new LeafNode(entry.getValue(), entry.getKey()));
+        }
 
         //3. вынимая по два узла из очереди (для сборки родителя)
         //и возвращая этого родителя обратно в очередь
         //построим дерево кодирования Хаффмана.
         //У родителя частоты детей складываются.
+        while (priorityQueue.size() > 1) {
+            Node left = priorityQueue.poll();
+            Node right = priorityQueue.poll();
+            priorityQueue.add(new InternalNode(left, right));
+        }
 
         //4. последний из родителей будет корнем этого дерева
         //это будет последний и единственный элемент оставшийся в очереди priorityQueue.
+        codes.clear();
+        Node root = priorityQueue.poll();
+        if (root instanceof LeafNode) {
+            root.fillCodes("0"); //единственный символ кодируется одним битом
+        } else {
+            root.fillCodes("");
+        }
         StringBuilder sb = new StringBuilder();
-        //.....
+        for (int i = 0; i < s.length(); i++) {
+            sb.append(codes.get(s.charAt(i)));
+        }
 
         return sb.toString();
         //01001100100111
@@ -147,14 +172,15 @@ public class A_Huffman {
         String root = System.getProperty("user.dir") + "/src/";
         File f = new File(root + "by/it/a_khmelev/lesson03/dataHuffman.txt");
         A_Huffman instance = new A_Huffman();
-        long startTime = System.currentTimeMillis();
+        Stopwatch watch = new Stopwatch();
         String result = instance.encode(f);
-        long finishTime = System.currentTimeMillis();
+        long elapsed = watch.elapsedNanos();
         System.out.printf("%d %d\n", codes.size(), result.length());
         for (Map.Entry<Character, String> entry : codes.entrySet()) {
             System.out.printf("%s: %s\n", entry.getKey(), entry.getValue());
         }
         System.out.println(result);
+        System.out.printf("time=%.3f ms\n", elapsed / 1e6);
     }
 
 }
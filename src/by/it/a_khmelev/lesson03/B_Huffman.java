@@ -50,10 +50,20 @@ public class B_Huffman {
         Integer length = scanner.nextInt();
         //!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!! НАЧАЛО ЗАДАЧИ !!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!1
         //тут запишите ваше решение
-
-
-
-
+        //коды букв - в таблицу (bits, length), закодированная строка - в упакованные слова,
+        //дальше табличный декодер: до TABLE_BITS бит за один поиск вместо спуска по дереву
+        long[] bits = new long['z' + 1];
+        int[] lengths = new int['z' + 1];
+        for (int i = 0; i < count; i++) {
+            char letter = scanner.next().charAt(0);
+            String code = scanner.next();
+            bits[letter] = Long.parseUnsignedLong(code, 2);
+            lengths[letter] = code.length();
+        }
+        String encoded = scanner.next();
+        if (encoded.length() != length) throw new IllegalStateException("length " + encoded.length() + " != " + length);
+        HuffmanTableDecoder decoder = new HuffmanTableDecoder(HuffmanCode.of(bits, lengths));
+        result.append(decoder.decode(BitWriter.pack(encoded), length));
         //!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!! КОНЕЦ ЗАДАЧИ !!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!1
         return result.toString(); //01001100100111
     }
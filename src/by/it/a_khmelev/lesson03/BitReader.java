@@ -0,0 +1,75 @@
+package by.it.a_khmelev.lesson03;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/*
+ * Чтение битового потока, записанного BitWriter (старший бит слова - первый).
+ * Источник - массив long[] или канал, из которого слова подкачиваются через ByteBuffer,
+ * поэтому в памяти держится только буфер, а не весь поток.
+ */
+
+public class BitReader {
+
+    private long current;  //непрочитанные биты, выровнены к старшему разряду
+    private int available; //сколько их
+    private long position; //сколько бит уже прочитано
+
+    private final long[] words;
+    private int nextWord;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    public BitReader(long[] words) {
+        this.words = words;
+        this.channel = null;
+        this.buffer = null;
+    }
+
+    //buffer в режиме чтения, в нем уже могут лежать первые байты потока
+    public BitReader(ReadableByteChannel channel, ByteBuffer buffer) {
+        this.words = null;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    public int readBit() {
+        if (available == 0) load();
+        int bit = (int) (current >>> 63);
+        current <<= 1;
+        available--;
+        position++;
+        return bit;
+    }
+
+    public long position() {
+        return position;
+    }
+
+    private void load() {
+        current = nextWord();
+        available = 64;
+    }
+
+    private long nextWord() {
+        if (channel == null) {
+            if (nextWord == words.length) throw new IllegalStateException("bit stream is over");
+            return words[nextWord++];
+        }
+        if (buffer.remaining() < Long.BYTES) {
+            buffer.compact();
+            try {
+                while (buffer.position() < Long.BYTES) {
+                    if (channel.read(buffer) < 0) throw new IllegalStateException("bit stream is over");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.flip();
+        }
+        return buffer.getLong();
+    }
+}
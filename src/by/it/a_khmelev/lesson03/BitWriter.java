@@ -0,0 +1,111 @@
+package by.it.a_khmelev.lesson03;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/*
+ * Запись битового потока: биты упаковываются в long, первым идет старший бит слова.
+ * Два режима:
+ *  - в память: растущий массив long[] (toLongArray)
+ *  - в канал: полные слова складываются в ByteBuffer и сбрасываются в WritableByteChannel
+ * Последнее слово дополняется нулями (flush), точная длина в битах - bitLength().
+ */
+
+public class BitWriter {
+
+    private long current; //незаконченное слово
+    private int used;     //сколько старших бит current занято
+    private long bitLength;
+
+    private long[] words;
+    private int wordCount;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    public BitWriter() {
+        words = new long[16];
+        channel = null;
+        buffer = null;
+    }
+
+    //buffer в режиме записи, в нем уже может лежать заголовок
+    public BitWriter(WritableByteChannel channel, ByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    //младшие length бит значения bits, 0 <= length <= 64
+    public void write(long bits, int length) {
+        if (length == 0) return;
+        if (length < 64) bits &= (1L << length) - 1;
+        int free = 64 - used;
+        if (length < free) {
+            current |= bits << (free - length);
+            used += length;
+        } else {
+            int rest = length - free;
+            current |= bits >>> rest;
+            pushWord(current);
+            current = rest == 0 ? 0 : bits << (64 - rest);
+            used = rest;
+        }
+        bitLength += length;
+    }
+
+    //строка из '0' и '1' в упакованные слова (длина в битах - s.length())
+    public static long[] pack(CharSequence s) {
+        long[] result = new long[(s.length() + 63) >>> 6];
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '1') result[i >>> 6] |= 1L << (63 - (i & 63));
+            else if (c != '0') throw new IllegalArgumentException("not a bit: '" + c + "' at " + i);
+        }
+        return result;
+    }
+
+    public long bitLength() {
+        return bitLength;
+    }
+
+    //дописать неполное слово (с нулями в конце) и, для канала, сбросить буфер
+    public void flush() {
+        if (used > 0) {
+            pushWord(current);
+            current = 0;
+            used = 0;
+        }
+        if (channel != null) drain();
+    }
+
+    //все слова, включая неполное последнее
+    public long[] toLongArray() {
+        if (channel != null) throw new IllegalStateException("writer is bound to a channel");
+        long[] result = Arrays.copyOf(words, wordCount + (used > 0 ? 1 : 0));
+        if (used > 0) result[wordCount] = current;
+        return result;
+    }
+
+    private void pushWord(long word) {
+        if (channel == null) {
+            if (wordCount == words.length) words = Arrays.copyOf(words, wordCount * 2);
+            words[wordCount++] = word;
+        } else {
+            if (buffer.remaining() < Long.BYTES) drain();
+            buffer.putLong(word);
+        }
+    }
+
+    private void drain() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+}
@@ -1,10 +1,14 @@
 package by.it.a_khmelev.lesson03;
 
+import by.it.a_khmelev.Stopwatch;
+
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 
 // Lesson 3. C_Heap.
@@ -43,24 +47,47 @@ public class C_HeapMax {
         //Будет мало? Ну тогда можете его собрать как Generic и/или использовать в варианте B
         private List<Long> heap = new ArrayList<>();
 
-        int siftDown(int i) { //просеивание вверх
-
+        int siftDown(int i) { //просеивание вниз
+            while (2 * i + 1 < heap.size()) {
+                int child = 2 * i + 1;
+                if (child + 1 < heap.size() && heap.get(child + 1) > heap.get(child)) child++;
+                if (heap.get(i) >= heap.get(child)) break;
+                swap(i, child);
+                i = child;
+            }
             return i;
         }
 
-        int siftUp(int i) { //просеивание вниз
-
+        int siftUp(int i) { //просеивание вверх
+            while (i > 0 && heap.get((i - 1) / 2) < heap.get(i)) {
+                swap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
             return i;
         }
 
         void insert(Long value) { //вставка
+            heap.add(value);
+            siftUp(heap.size() - 1);
         }
 
         Long extractMax() { //извлечение и удаление максимума
             Long result = null;
-
+            if (heap.isEmpty()) return result;
+            result = heap.get(0);
+            Long last = heap.remove(heap.size() - 1);
+            if (!heap.isEmpty()) {
+                heap.set(0, last);
+                siftDown(0);
+            }
             return result;
         }
+
+        private void swap(int i, int j) {
+            Long t = heap.get(i);
+            heap.set(i, heap.get(j));
+            heap.set(j, t);
+        }
         //!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!! КОНЕЦ ЗАДАЧИ !!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!1
     }
 
@@ -90,11 +117,93 @@ public class C_HeapMax {
         return maxValue;
     }
 
+    //то же без Scanner и Long: CommandTokenizer + LongMaxHeap, пустые строки не печатаются
+    Long findMaxValueFast(InputStream stream) {
+        return findMaxValueFast(stream, 2, false);
+    }
+
+    //arity - 2, 4 или 8; aligned - раскладка с группами детей по кэш-линиям (см. LongMaxHeap)
+    Long findMaxValueFast(InputStream stream, int arity, boolean aligned) {
+        long maxValue = 0;
+        LongMaxHeap heap = new LongMaxHeap(16, arity, aligned);
+        CommandTokenizer tokenizer = new CommandTokenizer(stream);
+        long count = tokenizer.nextLong();
+        for (long i = 0; i < count; i++) {
+            int command = tokenizer.nextWord();
+            if (command == 'i') {
+                heap.insert(tokenizer.nextLong());
+            } else if (command == 'e') {
+                if (!heap.isEmpty()) maxValue = Math.max(maxValue, heap.extractMax());
+            } else {
+                throw new IllegalArgumentException("unknown command at " + i);
+            }
+        }
+        return maxValue;
+    }
+
     public static void main(String[] args) throws FileNotFoundException {
         String root = System.getProperty("user.dir") + "/src/";
         InputStream stream = new FileInputStream(root + "by/it/a_khmelev/lesson03/heapData.txt");
         C_HeapMax instance = new C_HeapMax();
         System.out.println("MAX="+instance.findMaxValue(stream));
+
+        //10^7 операций: половина вставок, половина извлечений вперемешку
+        int n = 10_000_000;
+        Random random = new Random(1);
+        long[] values = new long[n];
+        boolean[] insert = new boolean[n];
+        StringBuilder commands = new StringBuilder().append(n).append('\n');
+        int inHeap = 0;
+        for (int i = 0; i < n; i++) {
+            insert[i] = inHeap == 0 || random.nextInt(2) == 0;
+            if (insert[i]) {
+                values[i] = random.nextInt(1_000_000_001);
+                commands.append("Insert ").append(values[i]).append('\n');
+                inHeap++;
+            } else {
+                commands.append("ExtractMax\n");
+                inHeap--;
+            }
+        }
+        byte[] text = commands.toString().getBytes();
+        Stopwatch.measure("MaxHeap (List<Long>), " + n + " ops", 1, 3, () -> {
+            MaxHeap heap = instance.new MaxHeap();
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                if (insert[i]) heap.insert(values[i]);
+                else sum += heap.extractMax();
+            }
+            return sum;
+        });
+        Stopwatch.measure("LongMaxHeap, " + n + " ops", 1, 3, () -> {
+            LongMaxHeap heap = new LongMaxHeap();
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                if (insert[i]) heap.insert(values[i]);
+                else sum += heap.extractMax();
+            }
+            return sum;
+        });
+        Stopwatch.measure("n inserts into LongMaxHeap", 1, 3, () -> {
+            LongMaxHeap heap = new LongMaxHeap();
+            for (long value : values) heap.insert(value);
+            return heap;
+        });
+        Stopwatch.measure("LongMaxHeap(long[]) - Floyd heapify", 1, 3, () -> new LongMaxHeap(values));
+        Stopwatch.measure("Scanner.nextLine + split, parse only", 1, 3, () -> {
+            Scanner scanner = new Scanner(new ByteArrayInputStream(text));
+            int count = Integer.parseInt(scanner.nextLine().trim());
+            long sum = 0;
+            for (int i = 0; i < count; i++) {
+                String[] p = scanner.nextLine().split(" ");
+                if (p.length > 1) sum += Long.parseLong(p[1]);
+            }
+            return sum;
+        });
+        Stopwatch.measure("findMaxValueFast (tokenizer + LongMaxHeap)", 1, 3,
+                () -> instance.findMaxValueFast(new ByteArrayInputStream(text)));
+        Stopwatch.measure("findMaxValueFast, d=4 aligned", 1, 3,
+                () -> instance.findMaxValueFast(new ByteArrayInputStream(text), 4, true));
     }
 
     // РЕМАРКА. Это задание исключительно учебное.
@@ -0,0 +1,70 @@
+package by.it.a_khmelev.lesson03;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/*
+ * Быстрое чтение потока команд вида "Insert 200" / "ExtractMax".
+ * Вместо Scanner.nextLine() + split() байты читаются в буфер и разбираются на месте:
+ * без регулярных выражений, строк и упаковки чисел.
+ */
+
+public class CommandTokenizer {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream stream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    public CommandTokenizer(InputStream stream) {
+        this.stream = stream;
+    }
+
+    //первая буква следующего слова в нижнем регистре (остаток слова пропускается), -1 - конец потока
+    public int nextWord() {
+        int b = skipSpaces();
+        if (b < 0) return -1;
+        int first = Character.toLowerCase(b);
+        while (b > ' ') b = read();
+        return first;
+    }
+
+    //следующее неотрицательное или отрицательное целое
+    public long nextLong() {
+        int b = skipSpaces();
+        boolean negative = b == '-';
+        if (negative) b = read();
+        if (b < '0' || b > '9') throw new NumberFormatException("number expected, got '" + (char) b + "'");
+        long result = 0;
+        while (b >= '0' && b <= '9') {
+            result = result * 10 + (b - '0');
+            b = read();
+        }
+        return negative ? -result : result;
+    }
+
+    private int skipSpaces() {
+        int b = read();
+        while (b >= 0 && b <= ' ') b = read();
+        return b;
+    }
+
+    private int read() {
+        if (position == limit) {
+            try {
+                limit = stream.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,187 @@
+package by.it.a_khmelev.lesson03;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/*
+ * Очередь с приоритетами (максимум) для нескольких потоков-производителей и потребителей.
+ *
+ * Схема MultiQueue: queues обычных куч LongMaxHeap, у каждой своя блокировка.
+ *  - insert: в случайную кучу, которую удалось захватить tryLock()
+ *  - extractMax: из двух случайных куч берется та, у которой больше вершина
+ *    (вершина кэшируется в volatile top и читается без блокировки)
+ * Потоки почти не ждут друг друга, но порядок ослаблен: извлекается не обязательно
+ * глобальный максимум, а один из самых больших элементов (ошибка ранга в среднем O(queues)).
+ *
+ * С одной кучей (queues = 1) это обычная куча под одной блокировкой
+ * и порядок строгий, как у C_HeapMax.MaxHeap.
+ * Пустая очередь возвращает EMPTY (вместо null у MaxHeap, чтобы не упаковывать long).
+ */
+
+public class ConcurrentMaxHeap {
+
+    static final long EMPTY = Long.MIN_VALUE;
+
+    private static class Queue {
+        final ReentrantLock lock = new ReentrantLock();
+        final LongMaxHeap heap = new LongMaxHeap(1024, 4, false);
+        volatile long top = EMPTY;
+    }
+
+    private final Queue[] queues;
+
+    ConcurrentMaxHeap() {
+        this(1);
+    }
+
+    //queues = 1 - строгий порядок; обычно берут 2-4 кучи на поток
+    ConcurrentMaxHeap(int queues) {
+        if (queues < 1) throw new IllegalArgumentException("queues < 1: " + queues);
+        this.queues = new Queue[queues];
+        for (int i = 0; i < queues; i++) this.queues[i] = new Queue();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int ops = 2_000_000; //пар insert + extractMax на все потоки
+        int prefill = 100_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d cores, %d insert+extractMax pairs per run, %d elements in queue \n\n",
+                cores, ops, prefill);
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            int t = threads;
+            ConcurrentMaxHeap strict = new ConcurrentMaxHeap(1);
+            ConcurrentMaxHeap relaxed = new ConcurrentMaxHeap(2 * threads);
+            PriorityBlockingQueue<Long> jdk = new PriorityBlockingQueue<>();
+            //установившийся режим: в очереди постоянно около prefill элементов
+            for (int i = 0; i < prefill; i++) {
+                long value = ThreadLocalRandom.current().nextInt(1_000_000_001);
+                strict.insert(value);
+                relaxed.insert(value);
+                jdk.add(value);
+            }
+            Stopwatch.measure("threads=" + t + " ConcurrentMaxHeap(1), strict", 1, 3,
+                    () -> run(t, ops, strict::insert, strict::extractMax));
+            Stopwatch.measure("threads=" + t + " ConcurrentMaxHeap(" + 2 * t + "), relaxed", 1, 3,
+                    () -> run(t, ops, relaxed::insert, relaxed::extractMax));
+            Stopwatch.measure("threads=" + t + " PriorityBlockingQueue<Long>", 1, 3,
+                    () -> run(t, ops, jdk::add, () -> {
+                        Long value = jdk.poll();
+                        return value == null ? EMPTY : value;
+                    }));
+            System.out.println();
+        }
+    }
+
+    //каждый поток чередует вставку и извлечение; нагрузка делится поровну
+    private static long run(int threads, int ops, LongConsumer insert, LongSupplier extract) {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long[] sums = new long[threads];
+        for (int w = 0; w < threads; w++) {
+            int id = w;
+            workers[w] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long sum = 0;
+                for (int i = id; i < ops; i += threads) {
+                    insert.accept(random.nextInt(1_000_000_001));
+                    sum += extract.getAsLong();
+                }
+                sums[id] = sum;
+            });
+            workers[w].start();
+        }
+        start.countDown();
+        long total = 0;
+        for (int w = 0; w < threads; w++) {
+            try {
+                workers[w].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            total += sums[w];
+        }
+        return total;
+    }
+
+    public void insert(long value) {
+        if (value == EMPTY) throw new IllegalArgumentException("Long.MIN_VALUE is reserved for EMPTY");
+        Queue queue = lockRandom();
+        try {
+            queue.heap.insert(value);
+            queue.top = queue.heap.max();
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+
+    //максимум (для queues > 1 - один из наибольших) или EMPTY, если очередь пуста
+    public long extractMax() {
+        while (true) {
+            Queue queue;
+            if (queues.length == 1) {
+                queue = queues[0];
+                queue.lock.lock();
+            } else {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Queue a = queues[random.nextInt(queues.length)];
+                Queue b = queues[random.nextInt(queues.length)];
+                queue = a.top >= b.top ? a : b;
+                if (queue.top == EMPTY) {
+                    //обе пустые (почти пустая очередь) - ищем непустую кучу перебором
+                    queue = largestTop();
+                    if (queue == null) return EMPTY;
+                }
+                if (!queue.lock.tryLock()) continue;
+            }
+            try {
+                if (queue.heap.isEmpty()) {
+                    if (queues.length == 1) return EMPTY;
+                    continue; //вершину уже забрал другой поток
+                }
+                long result = queue.heap.extractMax();
+                queue.top = queue.heap.isEmpty() ? EMPTY : queue.heap.max();
+                return result;
+            } finally {
+                queue.lock.unlock();
+            }
+        }
+    }
+
+    //без блокировок: при одновременных вставках ответ может сразу устареть
+    public boolean isEmpty() {
+        return largestTop() == null;
+    }
+
+    //куча с наибольшей вершиной или null, если все пусты
+    private Queue largestTop() {
+        Queue best = null;
+        for (Queue queue : queues) {
+            if (queue.top != EMPTY && (best == null || queue.top > best.top)) best = queue;
+        }
+        return best;
+    }
+
+    private Queue lockRandom() {
+        if (queues.length == 1) {
+            queues[0].lock.lock();
+            return queues[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Queue queue = queues[random.nextInt(queues.length)];
+            if (queue.lock.tryLock()) return queue;
+        }
+    }
+}
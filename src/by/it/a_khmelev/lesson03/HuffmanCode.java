@@ -0,0 +1,305 @@
+package by.it.a_khmelev.lesson03;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Код Хаффмана на массивах, без объектов Node и PriorityQueue.
+ *
+ * 1. частоты - массив int[] (long[]), индекс = код символа
+ * 2. листья сортируются по частоте один раз (ключ long: частота | символ)
+ * 3. дерево строится "двумя очередями" за линейное время:
+ *    очередь листьев уже упорядочена, а родители появляются в порядке неубывания частоты,
+ *    поэтому два минимума всегда лежат в начале одной из двух очередей.
+ *    При равенстве частот берется лист - так получаются те же коды, что и в A_Huffman.
+ * 4. узлы - это индексы в массивах parent[], длины кодов считаются от корня к листьям,
+ *    сами коды хранятся парой (long bits, int length): старший бит кода - первый.
+ * 5. canonical() - канонический код с теми же длинами: коды выдаются подряд в порядке
+ *    (длина, символ), поэтому для передачи кода достаточно одних длин.
+ */
+
+public class HuffmanCode {
+
+    //самый длинный код, который помещается в long
+    static final int MAX_CODE_LENGTH = 64;
+
+    final long[] bits;    //bits[c] - код символа c (младшие length[c] бит)
+    final int[] lengths;  //0 - символ не встречается
+    final char[] symbols; //встречающиеся символы по возрастанию
+    final int maxLength;
+
+    //дерево для декодирования: tree[2v+bit] - ребенок узла v, ~symbol для листа
+    private int[] tree;
+
+    private HuffmanCode(long[] bits, int[] lengths) {
+        this.bits = bits;
+        this.lengths = lengths;
+        int k = 0;
+        int max = 0;
+        for (int length : lengths) {
+            if (length > 0) k++;
+            max = Math.max(max, length);
+        }
+        symbols = new char[k];
+        k = 0;
+        for (int c = 0; c < lengths.length; c++) {
+            if (lengths[c] > 0) symbols[k++] = (char) c;
+        }
+        maxLength = max;
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        char[] text = new char[10_000];
+        for (int i = 0; i < text.length; i++) {
+            //неравномерное распределение букв: 'a' чаще всего
+            text[i] = (char) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 6)));
+        }
+        String s = new String(text);
+        A_Huffman huffman = new A_Huffman();
+        Stopwatch.measure("A_Huffman (Node, PriorityQueue, String codes)", 20, 200, () -> huffman.encode(s));
+        Stopwatch.measure("HuffmanCode.build(count(s)) + encode", 20, 200, () -> build(count(s)).encodeToString(s));
+        Stopwatch.measure("HuffmanCode.build(count(s))", 20, 200, () -> build(count(s)));
+    }
+
+    //частоты символов строки
+    static int[] count(CharSequence s) {
+        int[] frequency = new int[Character.MAX_VALUE + 1];
+        for (int i = 0; i < s.length(); i++) {
+            frequency[s.charAt(i)]++;
+        }
+        return frequency;
+    }
+
+    static HuffmanCode build(int[] frequency) {
+        long[] wide = new long[alphabetOf(frequency)];
+        for (int c = 0; c < wide.length; c++) wide[c] = frequency[c];
+        return build(wide);
+    }
+
+    //таблицы кодов обрезаются до последнего встречающегося символа
+    private static int alphabetOf(int[] frequency) {
+        int alphabet = frequency.length;
+        while (alphabet > 0 && frequency[alphabet - 1] == 0) alphabet--;
+        return alphabet;
+    }
+
+    //frequency[c] - сколько раз встречается символ c; длина массива - размер алфавита
+    static HuffmanCode build(long[] frequency) {
+        int alphabet = frequency.length;
+        while (alphabet > 0 && frequency[alphabet - 1] == 0) alphabet--;
+        if (alphabet > Character.MAX_VALUE + 1) throw new IllegalArgumentException("alphabet > 65536: " + alphabet);
+        int k = 0;
+        for (int c = 0; c < alphabet; c++) {
+            if (frequency[c] < 0) throw new IllegalArgumentException("negative frequency");
+            if (frequency[c] > 0) k++;
+        }
+        long[] bits = new long[alphabet];
+        int[] lengths = new int[alphabet];
+        if (k == 0) return new HuffmanCode(bits, lengths);
+
+        //листья по возрастанию частоты (при равенстве - по символу)
+        long[] order = new long[k];
+        int[] leafSymbol = new int[k];
+        long[] leafFrequency = new long[k];
+        boolean packed = maxOf(frequency) < (1L << (63 - 16)); //частота и символ помещаются в один long
+        if (packed) {
+            int j = 0;
+            for (int c = 0; c < alphabet; c++) {
+                if (frequency[c] > 0) order[j++] = (frequency[c] << 16) | c;
+            }
+            Arrays.sort(order);
+            for (int i = 0; i < k; i++) {
+                leafSymbol[i] = (int) (order[i] & 0xFFFF);
+                leafFrequency[i] = order[i] >>> 16;
+            }
+        } else {
+            Integer[] boxed = new Integer[k];
+            int j = 0;
+            for (int c = 0; c < alphabet; c++) {
+                if (frequency[c] > 0) boxed[j++] = c;
+            }
+            Arrays.sort(boxed, (a, b) -> frequency[a] != frequency[b]
+                    ? Long.compare(frequency[a], frequency[b]) : Integer.compare(a, b));
+            for (int i = 0; i < k; i++) {
+                leafSymbol[i] = boxed[i];
+                leafFrequency[i] = frequency[boxed[i]];
+            }
+        }
+        if (k == 1) {
+            lengths[leafSymbol[0]] = 1; //единственный символ кодируется одним битом "0"
+            return new HuffmanCode(bits, lengths);
+        }
+
+        //узлы 0..k-1 - листья, k..2k-2 - внутренние в порядке создания
+        int nodes = 2 * k - 1;
+        long[] nodeFrequency = new long[nodes];
+        int[] parent = new int[nodes];
+        boolean[] rightChild = new boolean[nodes];
+        System.arraycopy(leafFrequency, 0, nodeFrequency, 0, k);
+        int nextLeaf = 0;
+        int nextInternal = k;
+        for (int created = k; created < nodes; created++) {
+            for (int side = 0; side < 2; side++) {
+                int child;
+                if (nextLeaf < k && (nextInternal == created
+                        || nodeFrequency[nextLeaf] <= nodeFrequency[nextInternal])) {
+                    child = nextLeaf++;
+                } else {
+                    child = nextInternal++;
+                }
+                parent[child] = created;
+                rightChild[child] = side == 1;
+                nodeFrequency[created] += nodeFrequency[child];
+            }
+        }
+
+        //коды от корня вниз: у родителя индекс больше, чем у детей
+        long[] nodeBits = new long[nodes];
+        int[] nodeLength = new int[nodes];
+        for (int v = nodes - 2; v >= 0; v--) {
+            int p = parent[v];
+            nodeLength[v] = nodeLength[p] + 1;
+            if (nodeLength[v] > MAX_CODE_LENGTH) {
+                throw new IllegalStateException("Huffman code longer than " + MAX_CODE_LENGTH + " bits");
+            }
+            nodeBits[v] = (nodeBits[p] << 1) | (rightChild[v] ? 1 : 0);
+        }
+        for (int i = 0; i < k; i++) {
+            bits[leafSymbol[i]] = nodeBits[i];
+            lengths[leafSymbol[i]] = nodeLength[i];
+        }
+        return new HuffmanCode(bits, lengths);
+    }
+
+    //канонический код по длинам: символы по (длина, символ), следующий код = (предыдущий + 1) << разница длин
+    static HuffmanCode canonical(int[] lengths) {
+        int alphabet = lengths.length;
+        long[] order = new long[alphabet];
+        int k = 0;
+        for (int c = 0; c < alphabet; c++) {
+            if (lengths[c] < 0 || lengths[c] > MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("bad code length " + lengths[c]);
+            }
+            if (lengths[c] > 0) order[k++] = ((long) lengths[c] << 32) | c;
+        }
+        Arrays.sort(order, 0, k);
+        long[] bits = new long[alphabet];
+        long code = 0;
+        int previous = 0;
+        for (int i = 0; i < k; i++) {
+            int c = (int) order[i];
+            int length = (int) (order[i] >>> 32);
+            if (i > 0) code++;
+            code <<= length - previous;
+            previous = length;
+            bits[c] = code;
+        }
+        return new HuffmanCode(bits, lengths.clone());
+    }
+
+    //тот же код в канонической форме (длины кодов не меняются)
+    HuffmanCode canonical() {
+        return canonical(lengths);
+    }
+
+    //код по готовой таблице (например, прочитанной из заголовка сжатого файла)
+    static HuffmanCode of(long[] bits, int[] lengths) {
+        if (bits.length != lengths.length) throw new IllegalArgumentException("bits.length != lengths.length");
+        for (int length : lengths) {
+            if (length < 0 || length > MAX_CODE_LENGTH) throw new IllegalArgumentException("bad code length " + length);
+        }
+        return new HuffmanCode(bits.clone(), lengths.clone());
+    }
+
+    private static long maxOf(long[] frequency) {
+        long max = 0;
+        for (long f : frequency) max = Math.max(max, f);
+        return max;
+    }
+
+    //число различных символов
+    int size() {
+        return symbols.length;
+    }
+
+    //длина кода символа, 0 - символ не встречается
+    int length(char c) {
+        return c < lengths.length ? lengths[c] : 0;
+    }
+
+    //код символа в виде строки из '0' и '1'
+    String code(char c) {
+        int length = length(c);
+        if (length == 0) throw new IllegalArgumentException("no code for '" + c + "'");
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = length - 1; i >= 0; i--) {
+            sb.append((bits[c] >>> i & 1) == 0 ? '0' : '1');
+        }
+        return sb.toString();
+    }
+
+    //длина закодированного текста в битах
+    long encodedLength(long[] frequency) {
+        long total = 0;
+        for (int c = 0; c < frequency.length; c++) total += frequency[c] * length((char) c);
+        return total;
+    }
+
+    //отладочный вид: закодированная строка из '0' и '1', как у A_Huffman.encode
+    String encodeToString(CharSequence s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            int length = length(c);
+            if (length == 0) throw new IllegalArgumentException("no code for '" + c + "'");
+            for (int b = length - 1; b >= 0; b--) {
+                sb.append((bits[c] >>> b & 1) == 0 ? '0' : '1');
+            }
+        }
+        return sb.toString();
+    }
+
+    //упакованный код строки: биты в BitWriter вместо символов '0'/'1'
+    void encode(CharSequence s, BitWriter out) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            int length = length(c);
+            if (length == 0) throw new IllegalArgumentException("no code for '" + c + "'");
+            out.write(bits[c], length);
+        }
+    }
+
+    //очередной символ из потока: спуск по дереву кода, бит за битом
+    int decodeSymbol(BitReader in) {
+        int[] tree = tree();
+        int node = 0;
+        do {
+            node = tree[2 * node + in.readBit()];
+        } while (node > 0);
+        if (node == 0) throw new IllegalStateException("invalid code at bit " + in.position());
+        return ~node;
+    }
+
+    int[] tree() {
+        if (tree == null) tree = buildTree();
+        return tree;
+    }
+
+    private int[] buildTree() {
+        int[] result = new int[2 * Math.max(1, 2 * symbols.length - 1)];
+        int nodes = 1;
+        for (char c : symbols) {
+            int node = 0;
+            for (int b = lengths[c] - 1; b > 0; b--) {
+                int slot = 2 * node + (int) (bits[c] >>> b & 1);
+                if (result[slot] == 0) result[slot] = nodes++;
+                node = result[slot];
+            }
+            result[2 * node + (int) (bits[c] & 1)] = ~c;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,201 @@
+package by.it.a_khmelev.lesson03;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/*
+ * Сжатие файла кодом Хаффмана "файл в файл" через FileChannel.
+ * Алфавит - байты (0..255), в памяти держатся только буферы, а не весь текст
+ * (A_Huffman читает вход целиком в одну строку - для файлов в гигабайты это не годится).
+ *
+ * Два прохода:
+ *  1. частоты: файл режется на куски по CHUNK_SIZE байт, куски отображаются в память (map)
+ *     и считаются параллельно, у каждого потока свой long[256], в конце массивы складываются
+ *  2. кодирование: кусок за куском через буфер в BitWriter, который пишет в выходной канал
+ *
+ * Формат сжатого файла:
+ *      int k                               - число различных байтов
+ *      k раз: byte symbol, byte length     - длины кодов; код канонический и восстанавливается по длинам
+ *      long bitLength                      - длина закодированных данных в битах
+ *      long[]                              - данные (BitWriter), последнее слово дополнено нулями
+ */
+
+public class HuffmanFile {
+
+    static final int ALPHABET = 256;
+    private static final int BUFFER_SIZE = 1 << 16;
+    static final int CHUNK_SIZE = 1 << 24;
+
+    public static void main(String[] args) throws IOException {
+        File source = File.createTempFile("huffman", ".txt");
+        File packed = File.createTempFile("huffman", ".huf");
+        File restored = File.createTempFile("huffman", ".out");
+        source.deleteOnExit();
+        packed.deleteOnExit();
+        restored.deleteOnExit();
+        Random random = new Random(1);
+        try (PrintWriter out = new PrintWriter(source)) {
+            for (int i = 0; i < 10_000_000; i++) {
+                out.print((char) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 6))));
+            }
+        }
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            Stopwatch.measure("count, sequential read", 2, 5, () -> count(in));
+            Stopwatch.measure("count, parallel mapped chunks", 2, 5, () -> countParallel(in));
+        }
+        Stopwatch watch = new Stopwatch();
+        encode(source, packed);
+        System.out.printf("encode %d -> %d bytes \n\t time=%s \n\n", source.length(), packed.length(), watch);
+        watch.restart();
+        decode(packed, restored);
+        System.out.printf("decode %d -> %d bytes \n\t time=%s \n\n", packed.length(), restored.length(), watch);
+    }
+
+    static void encode(File source, File target) throws IOException {
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target.toPath(),
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            //проход 1: частоты байтов
+            long[] frequency = countParallel(in);
+            HuffmanCode code = HuffmanCode.build(frequency).canonical();
+
+            //заголовок
+            ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            writeHeader(code, code.encodedLength(frequency), output);
+
+            //проход 2: кодирование
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            BitWriter writer = new BitWriter(out, output);
+            in.position(0);
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    int c = buffer.get() & 0xFF;
+                    writer.write(code.bits[c], code.lengths[c]);
+                }
+                buffer.clear();
+            }
+            writer.flush();
+        }
+    }
+
+    //частоты байтов канала, последовательное чтение через буфер
+    static long[] count(FileChannel in) {
+        long[] frequency = new long[ALPHABET];
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try {
+            in.position(0);
+            while (in.read(buffer) >= 0) {
+                byte[] bytes = buffer.array();
+                for (int i = 0; i < buffer.position(); i++) frequency[bytes[i] & 0xFF]++;
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return frequency;
+    }
+
+    //частоты байтов файла: куски по CHUNK_SIZE отображаются в память и считаются параллельно
+    static long[] countParallel(FileChannel in) {
+        return countParallel(in, CHUNK_SIZE);
+    }
+
+    static long[] countParallel(FileChannel in, int chunkSize) {
+        long size;
+        try {
+            size = in.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int chunks = (int) ((size + chunkSize - 1) / chunkSize);
+        return IntStream.range(0, chunks).parallel().collect(
+                () -> new long[ALPHABET],
+                (frequency, chunk) -> countChunk(in, (long) chunk * chunkSize,
+                        (int) Math.min(chunkSize, size - (long) chunk * chunkSize), frequency),
+                (a, b) -> {
+                    for (int c = 0; c < ALPHABET; c++) a[c] += b[c];
+                });
+    }
+
+    private static void countChunk(FileChannel in, long from, int length, long[] frequency) {
+        MappedByteBuffer chunk;
+        try {
+            chunk = in.map(FileChannel.MapMode.READ_ONLY, from, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        //массовое чтение в byte[] быстрее, чем get() по одному байту
+        byte[] bytes = new byte[Math.min(BUFFER_SIZE, length)];
+        while (chunk.hasRemaining()) {
+            int n = Math.min(bytes.length, chunk.remaining());
+            chunk.get(bytes, 0, n);
+            for (int i = 0; i < n; i++) frequency[bytes[i] & 0xFF]++;
+        }
+    }
+
+    static void decode(File source, File target) throws IOException {
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target.toPath(),
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            input.limit(0);
+            HuffmanCode code = readHeader(in, input);
+            long bitLength = input.getLong();
+            BitReader reader = new BitReader(in, input);
+            ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (reader.position() < bitLength) {
+                if (!output.hasRemaining()) drain(out, output);
+                output.put((byte) code.decodeSymbol(reader));
+            }
+            drain(out, output);
+        }
+    }
+
+    private static void writeHeader(HuffmanCode code, long bitLength, ByteBuffer output) {
+        output.putInt(code.size());
+        for (char c : code.symbols) {
+            output.put((byte) c).put((byte) code.lengths[c]);
+        }
+        output.putLong(bitLength);
+    }
+
+    //читает таблицу кодов; после возврата в input (режим чтения) следующим лежит bitLength
+    private static HuffmanCode readHeader(FileChannel in, ByteBuffer input) throws IOException {
+        fill(in, input, Integer.BYTES);
+        int k = input.getInt();
+        int[] lengths = new int[ALPHABET];
+        for (int i = 0; i < k; i++) {
+            fill(in, input, 2);
+            int c = input.get() & 0xFF;
+            lengths[c] = input.get();
+        }
+        fill(in, input, Long.BYTES);
+        return HuffmanCode.canonical(lengths);
+    }
+
+    private static void fill(FileChannel in, ByteBuffer input, int need) throws IOException {
+        if (input.remaining() >= need) return;
+        input.compact();
+        while (input.position() < need) {
+            if (in.read(input) < 0) throw new IOException("unexpected end of file");
+        }
+        input.flip();
+    }
+
+    private static void drain(FileChannel out, ByteBuffer output) throws IOException {
+        output.flip();
+        while (output.hasRemaining()) out.write(output);
+        output.clear();
+    }
+}
@@ -0,0 +1,116 @@
+package by.it.a_khmelev.lesson03;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Табличное декодирование кода Хаффмана.
+ *
+ * Вместо спуска по дереву бит за битом берутся сразу TABLE_BITS следующих бит потока,
+ * и по ним в таблице из 2^TABLE_BITS элементов находится ответ:
+ *      entry > 0   - символ (младшие 16 бит) и длина его кода (старшие), поток сдвигается на длину
+ *      entry < 0   - код длиннее TABLE_BITS: -entry - узел дерева после TABLE_BITS бит,
+ *                    дальше обычный спуск по дереву (редкие длинные коды)
+ *      entry == 0  - такого префикса в коде нет
+ * Таблица строится по дереву кода, поэтому подходит любой беспрефиксный код,
+ * а не только канонический.
+ */
+
+public class HuffmanTableDecoder {
+
+    static final int TABLE_BITS = 10;
+
+    private final int[] table = new int[1 << TABLE_BITS];
+    private final int[] tree;
+    private final int maxLength;
+
+    HuffmanTableDecoder(HuffmanCode code) {
+        tree = code.tree();
+        maxLength = Math.max(1, code.maxLength);
+        for (int prefix = 0; prefix < table.length; prefix++) {
+            int node = 0;
+            int entry = 0;
+            for (int depth = 1; depth <= TABLE_BITS; depth++) {
+                node = tree[2 * node + (prefix >>> (TABLE_BITS - depth) & 1)];
+                if (node < 0) {
+                    entry = depth << 16 | ~node;
+                    break;
+                }
+                if (node == 0) break;
+                if (depth == TABLE_BITS) entry = -node;
+            }
+            table[prefix] = entry;
+        }
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        char[] text = new char[30_000_000];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = (char) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 6)));
+        }
+        HuffmanCode code = HuffmanCode.build(HuffmanCode.count(new String(text))).canonical();
+        BitWriter writer = new BitWriter();
+        code.encode(new String(text), writer);
+        long[] words = writer.toLongArray();
+        long bitLength = writer.bitLength();
+        System.out.printf("%d symbols, %d bits, max code length %d \n\n", text.length, bitLength, code.maxLength);
+
+        HuffmanTableDecoder decoder = new HuffmanTableDecoder(code);
+        Stopwatch.measure("bit walk (BitReader + tree)", 1, 5, () -> {
+            BitReader reader = new BitReader(words);
+            char[] out = new char[text.length];
+            int n = 0;
+            while (reader.position() < bitLength) out[n++] = (char) code.decodeSymbol(reader);
+            return out;
+        });
+        Stopwatch.measure("table, " + TABLE_BITS + " bits per lookup", 1, 5, () -> decoder.decode(words, bitLength));
+        System.out.println(Arrays.equals(text, decoder.decode(words, bitLength).toCharArray()));
+    }
+
+    //все символы из первых bitLength бит массива words (старший бит слова - первый)
+    String decode(long[] words, long bitLength) {
+        if (bitLength > (long) words.length * 64) throw new IllegalArgumentException("bitLength > words.length * 64");
+        //символов не меньше, чем bitLength / maxLength
+        char[] out = new char[(int) Math.min(bitLength / maxLength + 16, Integer.MAX_VALUE - 8)];
+        int n = 0;
+        long position = 0;
+        while (position < bitLength) {
+            if (n == out.length) out = Arrays.copyOf(out, n * 2);
+            int entry = table[(int) (window(words, position) >>> (64 - TABLE_BITS))];
+            if (entry > 0) {
+                out[n++] = (char) entry;
+                position += entry >>> 16;
+            } else if (entry < 0) {
+                int node = -entry;
+                position += TABLE_BITS;
+                do {
+                    if (position >= bitLength) throw new IllegalStateException("truncated code at bit " + position);
+                    node = tree[2 * node + bit(words, position++)];
+                } while (node > 0);
+                if (node == 0) throw new IllegalStateException("invalid code at bit " + position);
+                out[n++] = (char) ~node;
+            } else {
+                throw new IllegalStateException("invalid code at bit " + position);
+            }
+        }
+        //последний символ не может заходить в дополнение нулями за bitLength
+        if (position != bitLength) throw new IllegalStateException("truncated code at bit " + bitLength);
+        return new String(out, 0, n);
+    }
+
+    //64 бита потока, начиная с position (за концом массива - нули)
+    private static long window(long[] words, long position) {
+        int word = (int) (position >>> 6);
+        int offset = (int) (position & 63);
+        long result = words[word] << offset;
+        if (offset > 0 && word + 1 < words.length) result |= words[word + 1] >>> (64 - offset);
+        return result;
+    }
+
+    private static int bit(long[] words, long position) {
+        return (int) (words[(int) (position >>> 6)] >>> (63 - (position & 63)) & 1);
+    }
+}
@@ -0,0 +1,214 @@
+package by.it.a_khmelev.lesson03;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/*
+ * Индексированная max-куча: элемент - целый номер (handle) задачи с приоритетом key.
+ * Кроме insert/extractMax умеет менять приоритет и удалять задачу по номеру за O(log n).
+ *
+ *      heap[i]      - номер задачи в позиции i кучи
+ *      position[h]  - позиция задачи h в куче, -1 - задачи в куче нет
+ *      key[h]       - приоритет задачи h
+ * При каждом перемещении в siftUp/siftDown обновляется position, поэтому задачу
+ * можно найти в куче без поиска: changeKey и delete - это замена ключа (или последнего
+ * элемента на место удаляемого) и просеивание вверх или вниз из этой позиции.
+ *
+ * siftUp/siftDown - свои, а не из C_HeapMax.MaxHeap: там куча значений в List<Long>
+ * (упаковка на каждом сравнении) внутри закрытого класса задачи, а здесь сравниваются
+ * key[heap[i]] и при каждом перемещении обновляется position. Общая процедура с "хуком"
+ * на перемещение добавила бы вызов на каждый шаг самого частого цикла.
+ */
+
+public class IndexedMaxHeap {
+
+    private int[] heap;
+    private int[] position;
+    private long[] key;
+    private int size;
+
+    public IndexedMaxHeap() {
+        this(16);
+    }
+
+    //handles - ожидаемое число номеров (0..handles-1), массивы растут при необходимости
+    public IndexedMaxHeap(int handles) {
+        int capacity = Math.max(1, handles);
+        heap = new int[capacity];
+        position = new int[capacity];
+        key = new long[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public static void main(String[] args) {
+        int n = 100_000;   //задач в очереди
+        int ops = 1_000_000;
+        Random random = new Random(1);
+        long[] start = new long[n];
+        for (int h = 0; h < n; h++) start[h] = random.nextInt(1_000_000_001);
+        int[] handle = new int[ops];
+        long[] priority = new long[ops];
+        for (int i = 0; i < ops; i++) {
+            handle[i] = random.nextInt(n);
+            priority[i] = random.nextInt(1_000_000_001);
+        }
+        Stopwatch.measure(ops + " changeKey, IndexedMaxHeap n=" + n, 1, 5, () -> {
+            IndexedMaxHeap heap = new IndexedMaxHeap(n);
+            for (int h = 0; h < n; h++) heap.insert(h, start[h]);
+            for (int i = 0; i < ops; i++) heap.changeKey(handle[i], priority[i]);
+            return heap.maxHandle();
+        });
+        //обходной путь без индекса: remove(Object) ищет задачу линейно, потом add
+        int slow = ops / 100;
+        Stopwatch.measure(slow + " remove+add, PriorityQueue<Task> n=" + n, 1, 3, () -> {
+            Task[] tasks = new Task[n];
+            PriorityQueue<Task> queue = new PriorityQueue<>();
+            for (int h = 0; h < n; h++) {
+                tasks[h] = new Task(h, start[h]);
+                queue.add(tasks[h]);
+            }
+            for (int i = 0; i < slow; i++) {
+                Task task = tasks[handle[i]];
+                queue.remove(task);
+                task.key = priority[i];
+                queue.add(task);
+            }
+            return queue.peek();
+        });
+        Stopwatch.measure(ops / 2 + " delete + insert, IndexedMaxHeap n=" + n, 1, 5, () -> {
+            IndexedMaxHeap heap = new IndexedMaxHeap(n);
+            for (int h = 0; h < n; h++) heap.insert(h, start[h]);
+            for (int i = 0; i < ops / 2; i++) {
+                heap.delete(handle[i]);
+                heap.insert(handle[i], priority[i]);
+            }
+            return heap.maxHandle();
+        });
+    }
+
+    //задача для PriorityQueue в сравнении: больший ключ - раньше
+    private static class Task implements Comparable<Task> {
+        final int handle;
+        long key;
+
+        Task(int handle, long key) {
+            this.handle = handle;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Task o) {
+            return Long.compare(o.key, key);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < position.length && position[handle] >= 0;
+    }
+
+    public long key(int handle) {
+        check(handle);
+        return key[handle];
+    }
+
+    public void insert(int handle, long value) {
+        if (handle < 0) throw new IllegalArgumentException("handle < 0: " + handle);
+        if (handle >= position.length) grow(handle + 1);
+        if (position[handle] >= 0) throw new IllegalArgumentException("handle " + handle + " is already in heap");
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        key[handle] = value;
+        heap[size] = handle;
+        position[handle] = size;
+        siftUp(size++);
+    }
+
+    //номер задачи с наибольшим ключом
+    public int maxHandle() {
+        if (size == 0) throw new IllegalStateException("heap is empty");
+        return heap[0];
+    }
+
+    public int extractMax() {
+        int result = maxHandle();
+        delete(result);
+        return result;
+    }
+
+    //новый приоритет задачи: увеличение - просеивание вверх, уменьшение - вниз
+    public void changeKey(int handle, long value) {
+        check(handle);
+        long old = key[handle];
+        key[handle] = value;
+        if (value > old) siftUp(position[handle]);
+        else if (value < old) siftDown(position[handle]);
+    }
+
+    public void delete(int handle) {
+        check(handle);
+        int i = position[handle];
+        position[handle] = -1;
+        size--;
+        if (i == size) return;
+        //на место удаленного - последний, и он может пойти как вверх, так и вниз
+        heap[i] = heap[size];
+        position[heap[i]] = i;
+        siftDown(siftUp(i));
+    }
+
+    private void check(int handle) {
+        if (!contains(handle)) throw new IllegalArgumentException("handle " + handle + " is not in heap");
+    }
+
+    private void grow(int handles) {
+        int capacity = Math.max(handles, position.length * 2);
+        int old = position.length;
+        position = Arrays.copyOf(position, capacity);
+        Arrays.fill(position, old, capacity, -1);
+        key = Arrays.copyOf(key, capacity);
+    }
+
+    //просеивание вверх из позиции i, возвращает новую позицию
+    private int siftUp(int i) {
+        int h = heap[i];
+        long value = key[h];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (key[heap[parent]] >= value) break;
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = h;
+        position[h] = i;
+        return i;
+    }
+
+    //просеивание вниз из позиции i, возвращает новую позицию
+    private int siftDown(int i) {
+        int h = heap[i];
+        long value = key[h];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && key[heap[child + 1]] > key[heap[child]]) child++;
+            if (value >= key[heap[child]]) break;
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = h;
+        position[h] = i;
+        return i;
+    }
+}
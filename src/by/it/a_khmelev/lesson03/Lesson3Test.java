@@ -5,6 +5,13 @@ import org.junit.Test;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import static org.junit.Assert.assertTrue;
 
@@ -48,4 +55,214 @@ public class Lesson3Test {
         assertTrue("C failed", ok);
     }
 
+    @Test
+    public void HuffmanCode() throws Exception {
+        HuffmanCode code=HuffmanCode.build(HuffmanCode.count("abacabad"));
+        assertTrue("HuffmanCode failed", code.encodeToString("abacabad").equals("01001100100111"));
+        assertTrue("HuffmanCode single failed", HuffmanCode.build(HuffmanCode.count("aaa")).encodeToString("aaa").equals("000"));
+        Random random=new Random(11);
+        A_Huffman instance = new A_Huffman();
+        for (int test = 0; test < 100; test++) {
+            StringBuilder sb=new StringBuilder();
+            int n=1+random.nextInt(300);
+            for (int i = 0; i < n; i++) sb.append((char) ('a' + random.nextInt(1 + random.nextInt(26))));
+            String s=sb.toString();
+            //коды при равных частотах могут отличаться, но длина оптимального кода одна
+            assertTrue("HuffmanCode length failed", HuffmanCode.build(HuffmanCode.count(s)).encodeToString(s).length()==instance.encode(s).length());
+        }
+    }
+
+    @Test
+    public void HuffmanFile() throws Exception {
+        String s="abacabad";
+        HuffmanCode code=HuffmanCode.build(HuffmanCode.count(s));
+        BitWriter writer=new BitWriter();
+        code.encode(s, writer);
+        assertTrue("BitWriter length failed", writer.bitLength()==14);
+        assertTrue("BitWriter bits failed", writer.toLongArray()[0]==(0b01001100100111L<<50));
+        BitReader reader=new BitReader(writer.toLongArray());
+        StringBuilder sb=new StringBuilder();
+        while (reader.position()<writer.bitLength()) sb.append((char) code.decodeSymbol(reader));
+        assertTrue("BitReader failed", sb.toString().equals(s));
+
+        Random random=new Random(13);
+        for (int n : new int[]{0, 1, 100, 100_000}) {
+            byte[] data=new byte[n];
+            for (int i = 0; i < n; i++) data[i]=(byte) random.nextInt(1 + random.nextInt(256));
+            File source=File.createTempFile("huffman", ".bin");
+            File packed=File.createTempFile("huffman", ".huf");
+            File restored=File.createTempFile("huffman", ".out");
+            try {
+                Files.write(source.toPath(), data);
+                HuffmanFile.encode(source, packed);
+                HuffmanFile.decode(packed, restored);
+                assertTrue("HuffmanFile failed n="+n, Arrays.equals(data, Files.readAllBytes(restored.toPath())));
+                try (FileChannel in = FileChannel.open(source.toPath())) {
+                    assertTrue("countParallel failed n="+n, Arrays.equals(HuffmanFile.count(in), HuffmanFile.countParallel(in, 1000)));
+                }
+            } finally {
+                source.delete();
+                packed.delete();
+                restored.delete();
+            }
+        }
+    }
+
+    @Test
+    public void HuffmanTableDecoder() throws Exception {
+        HuffmanCode canonical=HuffmanCode.canonical(new int[]{0, 3, 1, 3, 2});
+        assertTrue("canonical failed", canonical.code((char) 2).equals("0") && canonical.code((char) 4).equals("10")
+                && canonical.code((char) 1).equals("110") && canonical.code((char) 3).equals("111"));
+        Random random=new Random(17);
+        for (int test = 0; test < 50; test++) {
+            StringBuilder sb=new StringBuilder();
+            int n=1+random.nextInt(5000);
+            //длинные коды (больше TABLE_BITS) дает экспоненциальное распределение частот
+            for (int i = 0; i < n; i++) sb.append((char) ('a' + Math.min(25, Integer.numberOfTrailingZeros(random.nextInt()))));
+            String s=sb.toString();
+            HuffmanCode code=HuffmanCode.build(HuffmanCode.count(s));
+            if (test % 2 == 0) code=code.canonical();
+            String encoded=code.encodeToString(s);
+            HuffmanTableDecoder decoder=new HuffmanTableDecoder(code);
+            assertTrue("HuffmanTableDecoder failed", decoder.decode(BitWriter.pack(encoded), encoded.length()).equals(s));
+        }
+    }
+
+    @Test
+    public void ParallelHuffman() throws Exception {
+        ForkJoinPool pool=new ForkJoinPool(4);
+        Random random=new Random(19);
+        for (int test = 0; test < 100; test++) {
+            StringBuilder sb=new StringBuilder();
+            int n=random.nextInt(3000);
+            for (int i = 0; i < n; i++) sb.append((char) ('a' + Math.min(25, Integer.numberOfTrailingZeros(random.nextInt()))));
+            String s=sb.toString();
+            assertTrue("ParallelHuffman count failed", Arrays.equals(HuffmanCode.count(s), ParallelHuffman.count(s, pool)));
+            HuffmanCode code=HuffmanCode.build(HuffmanCode.count(s));
+            BitWriter writer=new BitWriter();
+            code.encode(s, writer);
+            //маленькие блоки: границы блоков часто попадают внутрь одного слова
+            ParallelHuffman.Packed packed=ParallelHuffman.encode(s, code, pool, 1 + random.nextInt(50));
+            assertTrue("ParallelHuffman length failed", packed.bitLength==writer.bitLength());
+            assertTrue("ParallelHuffman encode failed", Arrays.equals(packed.words, writer.toLongArray()));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void LongMaxHeap() throws Exception {
+        String root = System.getProperty("user.dir") + "/src/";
+        C_HeapMax instance = new C_HeapMax();
+        Long res=instance.findMaxValueFast(new FileInputStream(root + "by/it/a_khmelev/lesson03/heapData.txt"));
+        assertTrue("findMaxValueFast failed", res==500);
+
+        Random random=new Random(23);
+        for (int test = 0; test < 50; test++) {
+            long[] values=new long[random.nextInt(200)];
+            for (int i = 0; i < values.length; i++) values[i]=random.nextInt(100);
+            //Флойд и вставки по одной дают одну и ту же последовательность максимумов
+            LongMaxHeap built=new LongMaxHeap(values);
+            LongMaxHeap inserted=new LongMaxHeap(1);
+            for (long value : values) inserted.insert(value);
+            long[] sorted=values.clone();
+            Arrays.sort(sorted);
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                assertTrue("LongMaxHeap heapify failed", built.extractMax()==sorted[i]);
+                assertTrue("LongMaxHeap insert failed", inserted.extractMax()==sorted[i]);
+            }
+            assertTrue("LongMaxHeap size failed", built.isEmpty() && inserted.isEmpty());
+        }
+        for (int arity = 2; arity <= 8; arity *= 2) {
+            for (boolean aligned : new boolean[]{false, true}) {
+                assertTrue("findMaxValueFast d="+arity+" failed", instance.findMaxValueFast(
+                        new FileInputStream(root + "by/it/a_khmelev/lesson03/heapData.txt"), arity, aligned)==500);
+                long[] values=new long[1000];
+                for (int i = 0; i < values.length; i++) values[i]=random.nextInt(300);
+                LongMaxHeap heap=new LongMaxHeap(Arrays.copyOf(values, 500), arity, aligned);
+                for (int i = 500; i < values.length; i++) heap.insert(values[i]);
+                long[] sorted=values.clone();
+                Arrays.sort(sorted);
+                for (int i = sorted.length - 1; i >= 0; i--) {
+                    assertTrue("LongMaxHeap d="+arity+" failed", heap.extractMax()==sorted[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void ConcurrentMaxHeap() throws Exception {
+        Random random=new Random(29);
+        ConcurrentMaxHeap strict=new ConcurrentMaxHeap();
+        long[] values=new long[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i]=random.nextInt(500);
+            strict.insert(values[i]);
+        }
+        long[] sorted=values.clone();
+        Arrays.sort(sorted);
+        for (int i = sorted.length - 1; i >= 0; i--) assertTrue("strict order failed", strict.extractMax()==sorted[i]);
+        assertTrue("strict empty failed", strict.extractMax()==ConcurrentMaxHeap.EMPTY);
+
+        //4 производителя и 4 потребителя: все вставленное извлекается ровно один раз
+        ConcurrentMaxHeap relaxed=new ConcurrentMaxHeap(8);
+        int perThread=20_000;
+        AtomicLongArray seen=new AtomicLongArray(4 * perThread);
+        AtomicInteger taken=new AtomicInteger();
+        Thread[] threads=new Thread[8];
+        for (int t = 0; t < 4; t++) {
+            int id=t;
+            threads[t]=new Thread(() -> {
+                for (int i = 0; i < perThread; i++) relaxed.insert(id * perThread + i);
+            });
+            threads[4 + t]=new Thread(() -> {
+                while (taken.get() < 4 * perThread) {
+                    long value=relaxed.extractMax();
+                    if (value!=ConcurrentMaxHeap.EMPTY) {
+                        seen.incrementAndGet((int) value);
+                        taken.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        for (int i = 0; i < seen.length(); i++) assertTrue("relaxed lost or duplicated " + i, seen.get(i)==1);
+        assertTrue("relaxed empty failed", relaxed.isEmpty());
+    }
+
+    @Test
+    public void IndexedMaxHeap() throws Exception {
+        Random random=new Random(31);
+        IndexedMaxHeap heap=new IndexedMaxHeap(4);
+        long[] expected=new long[300];
+        boolean[] present=new boolean[300];
+        for (int op = 0; op < 20_000; op++) {
+            int h=random.nextInt(expected.length);
+            long value=random.nextInt(1000);
+            int kind=random.nextInt(4);
+            if (!present[h]) {
+                heap.insert(h, value);
+                expected[h]=value;
+                present[h]=true;
+            } else if (kind==0) {
+                heap.delete(h);
+                present[h]=false;
+            } else if (kind==1 && !heap.isEmpty()) {
+                int max=heap.extractMax();
+                assertTrue("extractMax lost handle", present[max]);
+                for (int i = 0; i < expected.length; i++) assertTrue("extractMax failed", !present[i] || expected[i]<=expected[max]);
+                present[max]=false;
+            } else {
+                heap.changeKey(h, value);
+                expected[h]=value;
+            }
+            int count=0;
+            for (int i = 0; i < expected.length; i++) {
+                if (present[i]) count++;
+                assertTrue("contains failed", heap.contains(i)==present[i]);
+            }
+            assertTrue("size failed", heap.size()==count);
+        }
+    }
+
 }
@@ -0,0 +1,165 @@
+package by.it.a_khmelev.lesson03;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * max-куча на примитивном массиве long[], без упаковки в Long.
+ * Массив растет удвоением (амортизированно O(1) на вставку).
+ * Конструктор из массива строит кучу алгоритмом Флойда за O(n):
+ * siftDown для всех внутренних узлов, начиная с последнего.
+ *
+ * Арность d = 2, 4 или 8: дети узла i - d*i+1 .. d*i+d, родитель - (i-1)/d.
+ * При большой куче d-ичная куча ниже в log2(d) раз, а дети узла лежат подряд,
+ * поэтому siftDown делает меньше переходов по памяти (и больше сравнений на уровне).
+ *
+ * aligned - раскладка с выравниванием: перед корнем оставляется d-1 пустых ячеек,
+ * тогда группа детей любого узла начинается с индекса, кратного d,
+ * и при d=8 (8 long = 64 байта) занимает ровно одну кэш-линию, а не две.
+ * Выравнивание считается от начала данных массива: абсолютный адрес JVM не гарантирует,
+ * но при обычном выравнивании объектов группа детей не пересекает больше строк, чем нужно.
+ */
+
+public class LongMaxHeap {
+
+    private long[] heap;
+    private int size;
+    private final int shift; //log2(arity)
+    private final int pad;   //сколько ячеек перед корнем
+
+    public LongMaxHeap() {
+        this(16);
+    }
+
+    public LongMaxHeap(int capacity) {
+        this(capacity, 2, false);
+    }
+
+    public LongMaxHeap(int capacity, int arity, boolean aligned) {
+        shift = shiftOf(arity);
+        pad = aligned ? arity - 1 : 0;
+        heap = new long[pad + Math.max(1, capacity)];
+    }
+
+    //куча из готовых значений за O(n), массив копируется
+    public LongMaxHeap(long[] values) {
+        this(values, 2, false);
+    }
+
+    public LongMaxHeap(long[] values, int arity, boolean aligned) {
+        this(values.length, arity, aligned);
+        System.arraycopy(values, 0, heap, pad, values.length);
+        size = values.length;
+        for (int i = (size - 2) >> shift; i >= 0; i--) siftDown(i);
+    }
+
+    private static int shiftOf(int arity) {
+        switch (arity) {
+            case 2: return 1;
+            case 4: return 2;
+            case 8: return 3;
+            default: throw new IllegalArgumentException("arity must be 2, 4 or 8: " + arity);
+        }
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = {1_000, 100_000, 10_000_000};
+        if (args.length > 0) { //например 100000000 (нужно -Xmx2g и больше)
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+        }
+        int ops = 1_000_000;
+        Random random = new Random(1);
+        long[] stream = new long[ops];
+        for (int i = 0; i < ops; i++) stream[i] = random.nextInt(1_000_000_001);
+        for (int n : sizes) {
+            long[] values = new long[n];
+            for (int i = 0; i < n; i++) values[i] = random.nextInt(1_000_000_001);
+            for (int arity = 2; arity <= 8; arity *= 2) {
+                for (boolean aligned : new boolean[]{false, true}) {
+                    LongMaxHeap heap = new LongMaxHeap(values, arity, aligned);
+                    //размер кучи постоянный: вставка и извлечение по очереди
+                    Stopwatch.measure(String.format("n=%d d=%d aligned=%b, %d insert+extractMax",
+                            n, arity, aligned, ops), 1, 5, () -> {
+                        long sum = 0;
+                        for (long value : stream) {
+                            heap.insert(value);
+                            sum += heap.extractMax();
+                        }
+                        return sum;
+                    });
+                }
+            }
+            System.out.println();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int arity() {
+        return 1 << shift;
+    }
+
+    public void insert(long value) {
+        if (pad + size == heap.length) heap = Arrays.copyOf(heap, pad + size * 2);
+        heap[pad + size] = value;
+        siftUp(size++);
+    }
+
+    public long max() {
+        if (size == 0) throw new IllegalStateException("heap is empty");
+        return heap[pad];
+    }
+
+    public long extractMax() {
+        long result = max();
+        heap[pad] = heap[pad + --size];
+        if (size > 0) siftDown(0);
+        return result;
+    }
+
+    //просеивание вверх: значение i поднимается, пока родитель меньше (без обменов, одной записью)
+    private void siftUp(int i) {
+        long[] heap = this.heap;
+        long value = heap[pad + i];
+        while (i > 0) {
+            int parent = (i - 1) >>> shift;
+            if (heap[pad + parent] >= value) break;
+            heap[pad + i] = heap[pad + parent];
+            i = parent;
+        }
+        heap[pad + i] = value;
+    }
+
+    //просеивание вниз: значение i опускается на место большего из детей
+    private void siftDown(int i) {
+        long[] heap = this.heap;
+        long value = heap[pad + i];
+        int arity = 1 << shift;
+        int lastParent = (size - 2) >> shift; //у узлов с индексом <= lastParent есть дети
+        while (i <= lastParent) {
+            int first = (i << shift) + 1;
+            int last = Math.min(first + arity, size);
+            int child = first;
+            long best = heap[pad + first];
+            for (int j = first + 1; j < last; j++) {
+                if (heap[pad + j] > best) {
+                    best = heap[pad + j];
+                    child = j;
+                }
+            }
+            if (value >= best) break;
+            heap[pad + i] = best;
+            i = child;
+        }
+        heap[pad + i] = value;
+    }
+}
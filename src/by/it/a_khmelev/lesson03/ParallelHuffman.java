@@ -0,0 +1,216 @@
+package by.it.a_khmelev.lesson03;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+
+/*
+ * Параллельные фазы кодирования Хаффмана для текста в памяти.
+ *
+ * Подсчет частот: текст делится на блоки, у каждой задачи ForkJoinPool своя гистограмма int[65536],
+ * при объединении задач гистограммы складываются.
+ *
+ * Кодирование: текст делится на блоки, и в три шага
+ *  1. параллельно - длина кода каждого блока в битах (сумма lengths[c])
+ *  2. последовательно - префиксные суммы длин, это смещение блока в общем битовом буфере
+ *  3. параллельно - каждый блок пишет свои биты в общий long[] начиная со своего смещения.
+ * Слово на границе двух блоков общее. Каждое слово целиком пишет (обычной записью) только блок,
+ * который в нем не начинается; первое слово блока откладывается и после join()
+ * объединяется с буфером через OR последовательно - так гонок за общее слово нет.
+ */
+
+public class ParallelHuffman {
+
+    //блок меньше этого не делится: задача должна окупить свою гистограмму в 256 КБ
+    static final int MIN_BLOCK = 1 << 16;
+
+    //упакованный код: words как у BitWriter.toLongArray(), точная длина - bitLength
+    static class Packed {
+        final long[] words;
+        final long bitLength;
+
+        Packed(long[] words, long bitLength) {
+            this.words = words;
+            this.bitLength = bitLength;
+        }
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        char[] text = new char[50_000_000];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = (char) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 6)));
+        }
+        String s = new String(text);
+        HuffmanCode code = HuffmanCode.build(HuffmanCode.count(s));
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d symbols, %d cores \n\n", s.length(), cores);
+        Stopwatch.measure("count, sequential", 1, 5, () -> HuffmanCode.count(s));
+        Stopwatch.measure("encode, sequential BitWriter", 1, 5, () -> {
+            BitWriter writer = new BitWriter();
+            code.encode(s, writer);
+            return writer.toLongArray();
+        });
+        //степени двойки и обязательно само число ядер (например 1, 2, 4, 6)
+        for (int threads = 1; threads <= cores; threads = threads < cores ? Math.min(2 * threads, cores) : cores + 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            Stopwatch.measure("count, threads=" + threads, 1, 5, () -> count(s, pool));
+            Stopwatch.measure("encode, threads=" + threads, 1, 5, () -> encode(s, code, pool));
+            pool.shutdown();
+        }
+    }
+
+    static int[] count(CharSequence s) {
+        return count(s, ForkJoinPool.commonPool());
+    }
+
+    static int[] count(CharSequence s, ForkJoinPool pool) {
+        int blocks = blocks(s.length(), pool, MIN_BLOCK);
+        return pool.invoke(new Count(s, blocks, 0, blocks));
+    }
+
+    static Packed encode(CharSequence s, HuffmanCode code) {
+        return encode(s, code, ForkJoinPool.commonPool());
+    }
+
+    static Packed encode(CharSequence s, HuffmanCode code, ForkJoinPool pool) {
+        return encode(s, code, pool, MIN_BLOCK);
+    }
+
+    static Packed encode(CharSequence s, HuffmanCode code, ForkJoinPool pool, int minBlock) {
+        int n = s.length();
+        int blocks = blocks(n, pool, minBlock);
+        long[] bits = code.bits;
+        int[] lengths = code.lengths;
+
+        //1. длины блоков
+        long[] offset = new long[blocks + 1];
+        pool.invoke(new Blocks(0, blocks, b -> {
+            long total = 0;
+            int end = from(n, blocks, b + 1);
+            for (int i = from(n, blocks, b); i < end; i++) {
+                char c = s.charAt(i);
+                int length = c < lengths.length ? lengths[c] : 0;
+                if (length == 0) throw new IllegalArgumentException("no code for '" + c + "'");
+                total += length;
+            }
+            offset[b + 1] = total;
+        }));
+        //2. смещения
+        for (int b = 0; b < blocks; b++) offset[b + 1] += offset[b];
+        long bitLength = offset[blocks];
+        if ((bitLength + 63) >>> 6 > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("code is too long");
+        long[] words = new long[(int) ((bitLength + 63) >>> 6)];
+
+        //3. запись блоков, первые слова блоков - отдельно
+        long[] head = new long[blocks];
+        pool.invoke(new Blocks(0, blocks, b -> {
+            int first = (int) (offset[b] >>> 6);
+            int word = first;
+            int used = (int) (offset[b] & 63);
+            long current = 0;
+            int end = from(n, blocks, b + 1);
+            for (int i = from(n, blocks, b); i < end; i++) {
+                char c = s.charAt(i);
+                int length = lengths[c];
+                int free = 64 - used;
+                if (length < free) {
+                    current |= bits[c] << (free - length);
+                    used += length;
+                } else {
+                    int rest = length - free;
+                    current |= bits[c] >>> rest;
+                    if (word == first) head[b] = current;
+                    else words[word] = current;
+                    word++;
+                    current = rest == 0 ? 0 : bits[c] << (64 - rest);
+                    used = rest;
+                }
+            }
+            if (used > 0) {
+                if (word == first) head[b] = current;
+                else words[word] = current;
+            }
+        }));
+        for (int b = 0; b < blocks; b++) {
+            if (head[b] != 0) words[(int) (offset[b] >>> 6)] |= head[b];
+        }
+        return new Packed(words, bitLength);
+    }
+
+    //число блоков: несколько на поток, чтобы выровнять нагрузку, но не мельче minBlock
+    private static int blocks(int n, ForkJoinPool pool, int minBlock) {
+        long byCores = 4L * pool.getParallelism();
+        return (int) Math.max(1, Math.min(byCores, n / Math.max(1, minBlock)));
+    }
+
+    //начало блока b из blocks
+    private static int from(int n, int blocks, int b) {
+        return (int) ((long) n * b / blocks);
+    }
+
+    //гистограмма блоков [lo, hi): половины считаются параллельно и складываются
+    private static class Count extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final CharSequence s;
+        private final int blocks;
+        private final int lo;
+        private final int hi;
+
+        Count(CharSequence s, int blocks, int lo, int hi) {
+            this.s = s;
+            this.blocks = blocks;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (hi - lo == 1) {
+                int[] frequency = new int[Character.MAX_VALUE + 1];
+                int end = from(s.length(), blocks, hi);
+                for (int i = from(s.length(), blocks, lo); i < end; i++) {
+                    frequency[s.charAt(i)]++;
+                }
+                return frequency;
+            }
+            int mid = (lo + hi) >>> 1;
+            Count right = new Count(s, blocks, mid, hi);
+            right.fork();
+            int[] result = new Count(s, blocks, lo, mid).compute();
+            int[] other = right.join();
+            for (int c = 0; c < result.length; c++) result[c] += other[c];
+            return result;
+        }
+    }
+
+    //body(b) для всех блоков b из [lo, hi) в ForkJoinPool
+    private static class Blocks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo;
+        private final int hi;
+        private final IntConsumer body;
+
+        Blocks(int lo, int hi, IntConsumer body) {
+            this.lo = lo;
+            this.hi = hi;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                body.accept(lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Blocks(lo, mid, body), new Blocks(mid, hi, body));
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package by.it.a_khmelev.lesson04;
 
+import by.it.a_khmelev.Stopwatch;
+
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
@@ -28,6 +30,12 @@ import java.util.Scanner;
 
 public class A_BinaryFind {
     int[] findIndex(InputStream stream) throws FileNotFoundException {
+        //способ поиска выбирается по n и k (см. SortedSearch.choose)
+        return findIndex(stream, SortedSearch.Method.AUTO);
+    }
+
+    //те же данные, но поиск заданным способом (см. SortedSearch)
+    int[] findIndex(InputStream stream, SortedSearch.Method method) {
         //подготовка к чтению данных
         Scanner scanner = new Scanner(stream);
         //!!!!!!!!!!!!!!!!!!!!!!!!!     НАЧАЛО ЗАДАЧИ     !!!!!!!!!!!!!!!!!!!!!!!!!
@@ -42,16 +50,12 @@ public class A_BinaryFind {
 
         //размер массива индексов
         int k = scanner.nextInt();
-        int[] result=new int[k];
+        int[] values=new int[k];
         for (int i = 0; i < k; i++) {
-            int value = scanner.nextInt();
-            //тут реализуйте бинарный поиск индекса
-
-
-
-
-            result[i]=0;
+            values[i] = scanner.nextInt();
         }
+        //бинарный поиск по одному, галоп или слияние (для многих запросов)
+        int[] result=SortedSearch.findAll(a, values, method);
         //!!!!!!!!!!!!!!!!!!!!!!!!!     КОНЕЦ ЗАДАЧИ     !!!!!!!!!!!!!!!!!!!!!!!!!
         return result;
     }
@@ -61,12 +65,13 @@ public class A_BinaryFind {
         String root = System.getProperty("user.dir") + "/src/";
         InputStream stream = new FileInputStream(root + "by/it/a_khmelev/lesson04/dataA.txt");
         A_BinaryFind instance = new A_BinaryFind();
-        //long startTime = System.currentTimeMillis();
+        Stopwatch watch = new Stopwatch();
         int[] result=instance.findIndex(stream);
-        //long finishTime = System.currentTimeMillis();
+        long elapsed = watch.elapsedNanos();
         for (int index:result){
             System.out.print(index+" ");
         }
+        System.out.printf("\ntime=%.3f ms\n", elapsed / 1e6);
     }
 
 }
@@ -1,5 +1,7 @@
 package by.it.a_khmelev.lesson04;
 
+import by.it.a_khmelev.Stopwatch;
+
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
@@ -22,6 +24,11 @@ Sample Output:
 public class B_MergeSort {
 
     int[] getMergeSort(InputStream stream) throws FileNotFoundException {
+        return getMergeSort(stream, false);
+    }
+
+    //natural - адаптивная сортировка по готовым сериям (NaturalMergeSort), для почти упорядоченных данных
+    int[] getMergeSort(InputStream stream, boolean natural) throws FileNotFoundException {
         //подготовка к чтению данных
         Scanner scanner = new Scanner(stream);
         //!!!!!!!!!!!!!!!!!!!!!!!!!     НАЧАЛО ЗАДАЧИ     !!!!!!!!!!!!!!!!!!!!!!!!!
@@ -32,30 +39,43 @@ public class B_MergeSort {
         int[] a=new int[n];
         for (int i = 0; i < n; i++) {
             a[i] = scanner.nextInt();
-            System.out.println(a[i]);
         }
 
         // тут ваше решение (реализуйте сортировку слиянием)
         // https://ru.wikipedia.org/wiki/Сортировка_слиянием
-
-
-
-
-
+        if (natural) NaturalMergeSort.sort(a);
+        else mergeSort(a, new int[n], 0, n);
 
         //!!!!!!!!!!!!!!!!!!!!!!!!!     КОНЕЦ ЗАДАЧИ     !!!!!!!!!!!!!!!!!!!!!!!!!
         return a;
     }
+
+    //сортирует a[lo, hi), buffer - место для слияния
+    private static void mergeSort(int[] a, int[] buffer, int lo, int hi) {
+        if (hi - lo < 2) return;
+        int mid = (lo + hi) >>> 1;
+        mergeSort(a, buffer, lo, mid);
+        mergeSort(a, buffer, mid, hi);
+        int i = lo;
+        int j = mid;
+        int k = lo;
+        while (i < mid && j < hi) buffer[k++] = a[j] < a[i] ? a[j++] : a[i++];
+        while (i < mid) buffer[k++] = a[i++];
+        while (j < hi) buffer[k++] = a[j++];
+        System.arraycopy(buffer, lo, a, lo, hi - lo);
+    }
+
     public static void main(String[] args) throws FileNotFoundException {
         String root = System.getProperty("user.dir") + "/src/";
         InputStream stream = new FileInputStream(root + "by/it/a_khmelev/lesson04/dataB.txt");
         B_MergeSort instance = new B_MergeSort();
-        //long startTime = System.currentTimeMillis();
+        Stopwatch watch = new Stopwatch();
         int[] result=instance.getMergeSort(stream);
-        //long finishTime = System.currentTimeMillis();
+        long elapsed = watch.elapsedNanos();
         for (int index:result){
             System.out.print(index+" ");
         }
+        System.out.printf("\ntime=%.3f ms\n", elapsed / 1e6);
     }
 
 
@@ -1,5 +1,7 @@
 package by.it.a_khmelev.lesson04;
 
+import by.it.a_khmelev.Stopwatch;
+
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
@@ -66,9 +68,10 @@ public class C_GetInversions {
         String root = System.getProperty("user.dir") + "/src/";
         InputStream stream = new FileInputStream(root + "by/it/a_khmelev/lesson04/dataC.txt");
         C_GetInversions instance = new C_GetInversions();
-        //long startTime = System.currentTimeMillis();
+        Stopwatch watch = new Stopwatch();
         int result = instance.calc(stream);
-        //long finishTime = System.currentTimeMillis();
+        long elapsed = watch.elapsedNanos();
         System.out.print(result);
+        System.out.printf("\ntime=%.3f ms\n", elapsed / 1e6);
     }
 }
@@ -0,0 +1,262 @@
+package by.it.a_khmelev.lesson04;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Внешняя сортировка слиянием: файл int (4 байта, big-endian, без разделителей)
+ * может быть больше оперативной памяти, расход памяти ограничен параметром budget (байт).
+ *
+ * 1. серии: файл читается кусками по budget/8 чисел (отображение в память, map),
+ *    кусок сортируется ParallelMergeSort (массив + буфер = 8 байт на число, параллельно
+ *    в ForkJoinPool) и сбрасывается во временный файл. Чтение, сортировка и запись
+ *    серий идут друг за другом: чтение следующей серии во время сортировки текущей
+ *    потребовало бы второго массива, то есть меньших серий при том же budget
+ * 2. слияние: k серий сливаются через кучу на long (значение | номер серии),
+ *    у каждой серии свой буфер чтения, общий объем буферов тоже budget.
+ *    Если серий так много, что буферы вышли бы меньше MIN_BUFFER,
+ *    сливается по maxFanIn серий за проход, пока не останется одна.
+ */
+
+public class ExternalMergeSort {
+
+    //буфер чтения серии меньше этого - слишком мелкие чтения с диска
+    static final int MIN_BUFFER = 1 << 16;
+
+    public static void main(String[] args) throws IOException {
+        long megabytes = 512;   //например 4096 для файла 4 ГБ
+        long budget = 64L << 20;
+        if (args.length > 0) megabytes = Long.parseLong(args[0]);
+        if (args.length > 1) budget = Long.parseLong(args[1]) << 20;
+        File source = File.createTempFile("unsorted", ".int");
+        File target = File.createTempFile("sorted", ".int");
+        source.deleteOnExit();
+        target.deleteOnExit();
+        Stopwatch watch = new Stopwatch();
+        generate(source, megabytes << 18, new Random(1)); //4 байта на число
+        System.out.printf("generated %d MB \n\t time=%s \n\n", megabytes, watch);
+        watch.restart();
+        sort(source, target, budget);
+        System.out.printf("sorted %d MB with budget %d MB \n\t time=%s \n\n", megabytes, budget >> 20, watch);
+        watch.restart();
+        System.out.printf("check: sorted=%b \n\t time=%s \n\n", isSorted(target), watch);
+    }
+
+    static void sort(File source, File target, long budget) throws IOException {
+        if (budget < 2L * MIN_BUFFER) throw new IllegalArgumentException("budget < " + 2 * MIN_BUFFER);
+        File directory = target.getAbsoluteFile().getParentFile();
+        List<File> runs = new ArrayList<>();
+        List<File> next = new ArrayList<>();
+        try {
+            makeRuns(source, directory, budget, runs);
+            int maxFanIn = (int) Math.max(2, Math.min(Integer.MAX_VALUE, budget / MIN_BUFFER - 1));
+            //промежуточные проходы, пока серий больше maxFanIn
+            while (runs.size() > maxFanIn) {
+                for (int from = 0; from < runs.size(); from += maxFanIn) {
+                    List<File> group = runs.subList(from, Math.min(runs.size(), from + maxFanIn));
+                    File merged = File.createTempFile("run", ".int", directory);
+                    next.add(merged);
+                    merge(group, merged, budget);
+                    for (File run : group) run.delete();
+                }
+                runs = next;
+                next = new ArrayList<>();
+            }
+            merge(runs, target, budget);
+        } finally {
+            for (File run : runs) run.delete();
+            //серии прерванного исключением промежуточного прохода
+            for (File run : next) run.delete();
+        }
+    }
+
+    private static void makeRuns(File source, File directory, long budget, List<File> runs) throws IOException {
+        int runLength = (int) Math.min(Integer.MAX_VALUE - 8, budget / 8);
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size % Integer.BYTES != 0) throw new IOException("file size is not a multiple of 4: " + size);
+            long count = size / Integer.BYTES;
+            int[] run = new int[(int) Math.min(runLength, count)];
+            for (long from = 0; from < count; from += runLength) {
+                int length = (int) Math.min(runLength, count - from);
+                if (length != run.length) run = new int[length]; //последняя, короткая серия
+                //отображение не больше 2 ГБ за раз
+                int read = 0;
+                while (read < length) {
+                    int part = Math.min(length - read, (Integer.MAX_VALUE - 8) / Integer.BYTES);
+                    MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY,
+                            (from + read) * Integer.BYTES, (long) part * Integer.BYTES);
+                    mapped.asIntBuffer().get(run, read, part);
+                    read += part;
+                }
+                ParallelMergeSort.sort(run);
+                File file = File.createTempFile("run", ".int", directory);
+                runs.add(file);
+                write(file, run);
+            }
+        }
+    }
+
+    private static void write(File file, int[] values) throws IOException {
+        try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(MIN_BUFFER * 16);
+            IntBuffer ints = buffer.asIntBuffer();
+            for (int from = 0; from < values.length; ) {
+                int length = Math.min(ints.capacity(), values.length - from);
+                ints.clear();
+                ints.put(values, from, length);
+                buffer.clear().limit(length * Integer.BYTES);
+                while (buffer.hasRemaining()) out.write(buffer);
+                from += length;
+            }
+        }
+    }
+
+    //k-путевое слияние отсортированных серий в target
+    private static void merge(List<File> runs, File target, long budget) throws IOException {
+        int k = runs.size();
+        int bufferSize = (int) Math.min(1 << 24, budget / (k + 1)) & ~7;
+        FileChannel[] channels = new FileChannel[k];
+        ByteBuffer[] buffers = new ByteBuffer[k];
+        try (FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            MinHeap heap = new MinHeap(k);
+            for (int r = 0; r < k; r++) {
+                channels[r] = FileChannel.open(runs.get(r).toPath(), StandardOpenOption.READ);
+                buffers[r] = ByteBuffer.allocateDirect(bufferSize);
+                buffers[r].limit(0);
+                if (refill(channels[r], buffers[r])) heap.add(key(buffers[r].getInt(), r));
+            }
+            ByteBuffer output = ByteBuffer.allocateDirect(bufferSize);
+            while (!heap.isEmpty()) {
+                long top = heap.top();
+                int r = (int) top;
+                if (!output.hasRemaining()) drain(out, output);
+                output.putInt((int) (top >> 32));
+                //следующее число той же серии заменяет вершину: одно просеивание вместо двух
+                if (refill(channels[r], buffers[r])) heap.replaceTop(key(buffers[r].getInt(), r));
+                else heap.removeTop();
+            }
+            drain(out, output);
+        } finally {
+            for (FileChannel channel : channels) {
+                if (channel != null) channel.close();
+            }
+        }
+    }
+
+    //значение в старших 32 битах (со знаком), номер серии - в младших
+    private static long key(int value, int run) {
+        return ((long) value << 32) | run;
+    }
+
+    //false - серия закончилась
+    private static boolean refill(FileChannel in, ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() >= Integer.BYTES) return true;
+        buffer.compact();
+        while (buffer.position() < Integer.BYTES) {
+            if (in.read(buffer) < 0) {
+                if (buffer.position() != 0) throw new IOException("truncated run");
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) out.write(buffer);
+        buffer.clear();
+    }
+
+    //n случайных int в файл
+    static void generate(File file, long n, Random random) throws IOException {
+        try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(MIN_BUFFER * 16);
+            for (long i = 0; i < n; i++) {
+                if (!buffer.hasRemaining()) drain(out, buffer);
+                buffer.putInt(random.nextInt());
+            }
+            drain(out, buffer);
+        }
+    }
+
+    static boolean isSorted(File file) throws IOException {
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(MIN_BUFFER * 16);
+            buffer.limit(0);
+            long previous = Long.MIN_VALUE;
+            while (refill(in, buffer)) {
+                int value = buffer.getInt();
+                if (value < previous) return false;
+                previous = value;
+            }
+            return true;
+        }
+    }
+
+    //куча минимумов на long[] только с нужными слиянию операциями
+    private static class MinHeap {
+        private final long[] heap;
+        private int size;
+
+        MinHeap(int capacity) {
+            heap = new long[Math.max(1, capacity)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long top() {
+            return heap[0];
+        }
+
+        void add(long value) {
+            int i = size++;
+            while (i > 0 && heap[(i - 1) >>> 1] > value) {
+                heap[i] = heap[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+            heap[i] = value;
+        }
+
+        void replaceTop(long value) {
+            heap[0] = value;
+            siftDown();
+        }
+
+        void removeTop() {
+            heap[0] = heap[--size];
+            if (size > 0) siftDown();
+        }
+
+        private void siftDown() {
+            long value = heap[0];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+                if (value <= heap[child]) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = value;
+        }
+    }
+}
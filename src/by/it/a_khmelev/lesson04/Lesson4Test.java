@@ -2,9 +2,14 @@ package by.it.a_khmelev.lesson04;
 
 import org.junit.Test;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.assertTrue;
 
@@ -25,6 +30,41 @@ public class Lesson4Test {
         assertTrue("A failed", ok);
     }
 
+    @Test
+    public void SortedSearch() throws Exception {
+        String root = System.getProperty("user.dir") + "/src/";
+        A_BinaryFind instance = new A_BinaryFind();
+        for (SortedSearch.Method method : SortedSearch.Method.values()) {
+            InputStream stream = new FileInputStream(root + "by/it/a_khmelev/lesson04/dataA.txt");
+            assertTrue("A "+method+" failed", Arrays.equals(instance.findIndex(stream, method), new int[]{3, 1, -1, 1, -1}));
+        }
+        Random random=new Random(37);
+        for (int test = 0; test < 200; test++) {
+            int[] a=SortedSearch.sortedDistinct(random.nextInt(100), random);
+            int[] values=new int[1 + random.nextInt(50)];
+            for (int i = 0; i < values.length; i++) values[i]=random.nextInt(a.length * 60 + 2) - 1;
+            int[] expected=new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                int j=Arrays.binarySearch(a, values[i]);
+                expected[i]=j >= 0 ? j + 1 : -1;
+            }
+            int[] ordered=values.clone();
+            Arrays.sort(ordered);
+            int[] expectedOrdered=new int[ordered.length];
+            for (int i = 0; i < ordered.length; i++) {
+                int j=Arrays.binarySearch(a, ordered[i]);
+                expectedOrdered[i]=j >= 0 ? j + 1 : -1;
+            }
+            for (SortedSearch.Method method : SortedSearch.Method.values()) {
+                assertTrue(method+" failed", Arrays.equals(SortedSearch.findAll(a, values, method), expected));
+                assertTrue(method+" sorted failed", Arrays.equals(SortedSearch.findAll(a, ordered, method), expectedOrdered));
+            }
+        }
+        assertTrue("choose failed", SortedSearch.choose(1_000_000, 10, false)==SortedSearch.Method.BINARY
+                && SortedSearch.choose(1_000_000, 100_000, false)==SortedSearch.Method.MERGE
+                && SortedSearch.choose(1_000_000, 100_000, true)==SortedSearch.Method.GALLOP);
+    }
+
 
     @Test
     public void B() throws Exception {
@@ -44,6 +84,80 @@ public class Lesson4Test {
         assertTrue("B failed", ok);
     }
 
+    @Test
+    public void ParallelMergeSort() throws Exception {
+        Random random=new Random(41);
+        ForkJoinPool pool=new ForkJoinPool(4);
+        for (int n : new int[]{0, 1, 2, 31, 33, 1000, 50_000, 300_000}) {
+            int[] a=new int[n];
+            //мало различных значений - много равных на границах слияний
+            for (int i = 0; i < n; i++) a[i]=random.nextInt(1 + n / 10);
+            int[] expected=a.clone();
+            Arrays.sort(expected);
+            int[] sequential=a.clone();
+            ParallelMergeSort.sortSequential(sequential);
+            assertTrue("sortSequential failed n="+n, Arrays.equals(sequential, expected));
+            ParallelMergeSort.sort(a, pool);
+            assertTrue("ParallelMergeSort failed n="+n, Arrays.equals(a, expected));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void ExternalMergeSort() throws Exception {
+        //маленький бюджет: много серий и несколько проходов слияния
+        for (long n : new long[]{0, 1, 1000, 600_000}) {
+            File source=File.createTempFile("unsorted", ".int");
+            File target=File.createTempFile("sorted", ".int");
+            try {
+                ExternalMergeSort.generate(source, n, new Random(43));
+                ExternalMergeSort.sort(source, target, 3 * ExternalMergeSort.MIN_BUFFER);
+                assertTrue("ExternalMergeSort length failed n="+n, target.length()==source.length());
+                assertTrue("ExternalMergeSort order failed n="+n, ExternalMergeSort.isSorted(target));
+                int[] expected=toInts(Files.readAllBytes(source.toPath()));
+                Arrays.sort(expected);
+                assertTrue("ExternalMergeSort values failed n="+n, Arrays.equals(expected, toInts(Files.readAllBytes(target.toPath()))));
+            } finally {
+                source.delete();
+                target.delete();
+            }
+        }
+    }
+
+    @Test
+    public void NaturalMergeSort() throws Exception {
+        Random random=new Random(47);
+        for (int n : new int[]{0, 1, 2, 31, 33, 1000, 100_000}) {
+            int[][] inputs=new int[6][n];
+            for (int i = 0; i < n; i++) {
+                inputs[0][i]=random.nextInt();                  //случайные
+                inputs[1][i]=i / 3;                             //по возрастанию, с равными
+                inputs[2][i]=(n - i) / 3;                       //по убыванию, с равными
+                inputs[3][i]=i;                                 //почти упорядоченные
+                inputs[4][i]=i % 97 + (i / 97 % 2) * 50;        //пила: много серий, перекрывающихся частично
+                inputs[5][i]=random.nextInt(4);                 //мало различных
+            }
+            for (int i = 0; i < n / 50; i++) inputs[3][random.nextInt(n)]=random.nextInt(n);
+            for (int[] a : inputs) {
+                int[] expected=a.clone();
+                Arrays.sort(expected);
+                NaturalMergeSort.sort(a);
+                assertTrue("NaturalMergeSort failed n="+n, Arrays.equals(a, expected));
+            }
+        }
+        String root = System.getProperty("user.dir") + "/src/";
+        int[] natural=new B_MergeSort().getMergeSort(new FileInputStream(root + "by/it/a_khmelev/lesson04/dataB.txt"), true);
+        int[] expected=natural.clone();
+        Arrays.sort(expected);
+        assertTrue("B natural failed", natural.length>3 && Arrays.equals(natural, expected));
+    }
+
+    private static int[] toInts(byte[] bytes) {
+        int[] result=new int[bytes.length / 4];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(result);
+        return result;
+    }
+
 
     @Test
     public void C() throws Exception {
@@ -0,0 +1,262 @@
+package by.it.a_khmelev.lesson04;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Естественная (адаптивная) сортировка слиянием в духе TimSort.
+ *
+ * 1. массив делится на уже готовые серии: неубывающие берутся как есть,
+ *    строго убывающие разворачиваются на месте (строго - чтобы не нарушить устойчивость).
+ *    Короткие серии добираются до minRun сортировкой вставками.
+ * 2. серии складываются в стек и сливаются так, чтобы длины в стеке росли
+ *    быстрее чисел Фибоначчи - тогда слияния сбалансированы и всего их O(n log n),
+ *    а для почти упорядоченного массива серий мало и работа близка к O(n).
+ * 3. слияние двух соседних серий:
+ *    - начало левой серии, которое меньше первого элемента правой, и конец правой,
+ *      который не меньше последнего элемента левой, уже на месте (для упорядоченных
+ *      соседей слияния нет совсем);
+ *    - если одна серия MIN_GALLOP раз подряд "выигрывает", дальше ее элементы ищутся
+ *      экспоненциальным поиском и копируются одним arraycopy ("галоп").
+ *      Счетчик побед на каждом шаге (как в TimSort) на случайных данных замедлял слияние
+ *      примерно на треть, поэтому слияние идет отрезками по MIN_GALLOP шагов без проверок,
+ *      а серия побед определяется после отрезка.
+ */
+
+public class NaturalMergeSort {
+
+    static final int MIN_MERGE = 32;
+    //галоп начинается, если все MIN_GALLOP шагов слияния подряд взяли элемент одной серии
+    static final int MIN_GALLOP = 16;
+
+    private final int[] a;
+    private int[] buffer = new int[0];
+    private final int[] runStart;
+    private final int[] runLength;
+    private int runs;
+
+    private NaturalMergeSort(int[] a) {
+        this.a = a;
+        //при росте длин как у Фибоначчи серий в стеке не больше ~45
+        runStart = new int[64];
+        runLength = new int[64];
+    }
+
+    public static void main(String[] args) {
+        int n = 10_000_000;
+        if (args.length > 0) n = Integer.parseInt(args[0]);
+        Random random = new Random(1);
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++) sorted[i] = i;
+        int[] reversed = new int[n];
+        for (int i = 0; i < n; i++) reversed[i] = n - i;
+        //журнал с опозданиями: 1% записей вставлен не на свое место
+        int[] nearly = sorted.clone();
+        for (int i = 0; i < n / 100; i++) nearly[random.nextInt(n)] = random.nextInt(n);
+        int[] randomValues = new int[n];
+        for (int i = 0; i < n; i++) randomValues[i] = random.nextInt();
+        String[] names = {"sorted", "reversed", "nearly sorted", "random"};
+        int[][] inputs = {sorted, reversed, nearly, randomValues};
+        for (int t = 0; t < inputs.length; t++) {
+            int[] source = inputs[t];
+            System.out.printf("%s, n=%d\n", names[t], n);
+            Stopwatch.measure("  NaturalMergeSort", 1, 3, () -> {
+                int[] a = source.clone();
+                sort(a);
+                return a;
+            });
+            Stopwatch.measure("  ParallelMergeSort.sortSequential (top-down)", 1, 3, () -> {
+                int[] a = source.clone();
+                ParallelMergeSort.sortSequential(a);
+                return a;
+            });
+            Stopwatch.measure("  Arrays.sort", 1, 3, () -> {
+                int[] a = source.clone();
+                Arrays.sort(a);
+                return a;
+            });
+        }
+    }
+
+    static void sort(int[] a) {
+        int n = a.length;
+        if (n < 2) return;
+        NaturalMergeSort sorter = new NaturalMergeSort(a);
+        int minRun = minRun(n);
+        int lo = 0;
+        while (lo < n) {
+            int length = countRun(a, lo, n);
+            if (length < minRun) {
+                int forced = Math.min(minRun, n - lo);
+                ParallelMergeSort.insertionSort(a, lo, lo + forced); //начало уже по порядку - по сравнению на элемент
+                length = forced;
+            }
+            sorter.push(lo, length);
+            sorter.mergeCollapse();
+            lo += length;
+        }
+        sorter.mergeForceCollapse();
+    }
+
+    //minRun из [MIN_MERGE/2, MIN_MERGE]: n/minRun - степень двойки или чуть меньше
+    static int minRun(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    //длина серии с начала lo; строго убывающая серия разворачивается
+    static int countRun(int[] a, int lo, int hi) {
+        int end = lo + 1;
+        if (end == hi) return 1;
+        if (a[end++] < a[lo]) {
+            while (end < hi && a[end] < a[end - 1]) end++;
+            reverse(a, lo, end);
+        } else {
+            while (end < hi && a[end] >= a[end - 1]) end++;
+        }
+        return end - lo;
+    }
+
+    private static void reverse(int[] a, int lo, int hi) {
+        for (hi--; lo < hi; lo++, hi--) {
+            int t = a[lo];
+            a[lo] = a[hi];
+            a[hi] = t;
+        }
+    }
+
+    private void push(int start, int length) {
+        runStart[runs] = start;
+        runLength[runs] = length;
+        runs++;
+    }
+
+    //инварианты стека (как в исправленном TimSort): len[i-2] > len[i-1] + len[i], len[i-1] > len[i]
+    private void mergeCollapse() {
+        while (runs > 1) {
+            int n = runs - 2;
+            if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                    || n > 1 && runLength[n - 2] <= runLength[n - 1] + runLength[n]) {
+                if (runLength[n - 1] < runLength[n + 1]) n--;
+            } else if (runLength[n] > runLength[n + 1]) {
+                break;
+            }
+            mergeAt(n);
+        }
+    }
+
+    private void mergeForceCollapse() {
+        while (runs > 1) {
+            int n = runs - 2;
+            if (n > 0 && runLength[n - 1] < runLength[n + 1]) n--;
+            mergeAt(n);
+        }
+    }
+
+    //слияние серий i и i+1 стека
+    private void mergeAt(int i) {
+        int lo = runStart[i];
+        int mid = lo + runLength[i];
+        int hi = mid + runLength[i + 1];
+        runLength[i] += runLength[i + 1];
+        if (i == runs - 3) {
+            runStart[i + 1] = runStart[i + 2];
+            runLength[i + 1] = runLength[i + 2];
+        }
+        runs--;
+        merge(lo, mid, hi);
+    }
+
+    private void merge(int lo, int mid, int hi) {
+        //элементы левой серии, не большие a[mid], уже на месте
+        lo = gallopRight(a, a[mid], lo, mid);
+        if (lo == mid) return; //соседи уже по порядку
+        //элементы правой серии, не меньшие a[mid-1], тоже на месте
+        hi = gallopLeftFromEnd(a, a[mid - 1], mid, hi);
+
+        int leftLength = mid - lo;
+        //обычно хватает половины массива, больше - только для длинной левой серии
+        if (buffer.length < leftLength) buffer = new int[Math.max(leftLength, a.length / 2)];
+        System.arraycopy(a, lo, buffer, 0, leftLength);
+        int i = 0;       //в buffer
+        int j = mid;     //в a, правая серия
+        int k = lo;      //куда писать
+        while (i < leftLength && j < hi) {
+            int steps = Math.min(MIN_GALLOP, Math.min(leftLength - i, hi - j));
+            int start = i;
+            for (int s = 0; s < steps; s++) a[k++] = a[j] < buffer[i] ? a[j++] : buffer[i++];
+            if (i == start) {
+                if (j < hi) {
+                    //все a[j, end) меньше buffer[i] - одним куском (области могут перекрываться, k < j)
+                    int end = gallopLeft(a, buffer[i], j, hi);
+                    System.arraycopy(a, j, a, k, end - j);
+                    k += end - j;
+                    j = end;
+                }
+            } else if (i - start == steps && i < leftLength) {
+                //все buffer[i, end) не больше a[j]
+                int end = gallopRight(buffer, a[j], i, leftLength);
+                System.arraycopy(buffer, i, a, k, end - i);
+                k += end - i;
+                i = end;
+            }
+        }
+        //остаток правой серии уже на месте
+        System.arraycopy(buffer, i, a, k, leftLength - i);
+    }
+
+    //первый индекс в [from, to) с x[i] > key; экспоненциальный поиск от from
+    static int gallopRight(int[] x, int key, int from, int to) {
+        int step = 1;
+        int lo = from;
+        int hi = from;
+        while (hi < to && x[hi] <= key) {
+            lo = hi + 1;
+            hi = step > to - 1 - hi ? to : hi + step;
+            step <<= 1;
+        }
+        return bound(x, key, lo, hi, true);
+    }
+
+    //первый индекс в [from, to) с x[i] >= key; экспоненциальный поиск от from
+    static int gallopLeft(int[] x, int key, int from, int to) {
+        int step = 1;
+        int lo = from;
+        int hi = from;
+        while (hi < to && x[hi] < key) {
+            lo = hi + 1;
+            hi = step > to - 1 - hi ? to : hi + step;
+            step <<= 1;
+        }
+        return bound(x, key, lo, hi, false);
+    }
+
+    //первый индекс в [from, to) с x[i] >= key; экспоненциальный поиск от конца
+    static int gallopLeftFromEnd(int[] x, int key, int from, int to) {
+        int step = 1;
+        int lo = to;
+        int hi = to;
+        while (lo > from && x[lo - 1] >= key) {
+            hi = lo - 1;
+            lo = step > lo - 1 - from ? from : lo - 1 - step;
+            step <<= 1;
+        }
+        return bound(x, key, lo, hi, false);
+    }
+
+    //первый индекс в [from, to) с x[i] > key (strict) или x[i] >= key, или to
+    private static int bound(int[] x, int key, int from, int to, boolean strict) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (x[mid] < key || strict && x[mid] == key) from = mid + 1;
+            else to = mid;
+        }
+        return from;
+    }
+}
@@ -0,0 +1,206 @@
+package by.it.a_khmelev.lesson04;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Сортировка слиянием в ForkJoinPool.
+ *
+ * Буфер: один вспомогательный массив на всю сортировку, без выделения памяти в рекурсии.
+ * Перед началом буфер - копия массива, и дальше массивы меняются ролями ("пинг-понг"):
+ * чтобы отсортировать a[lo, hi), половины сортируются в b (а a служит им буфером),
+ * и затем сливаются из b обратно в a. Копирований между уровнями нет.
+ *
+ * Короткие отрезки (INSERTION_CUTOFF) - сортировка вставками,
+ * отрезки меньше SEQUENTIAL_CUTOFF - последовательно, без задач.
+ *
+ * Слияние тоже параллельное: средний элемент x большей половины ставится на свое место,
+ * в меньшей половине бинарным поиском находится граница для x, и получаются
+ * два независимых слияния поменьше (левые части и правые части).
+ */
+
+public class ParallelMergeSort {
+
+    static final int INSERTION_CUTOFF = 32;
+    static final int SEQUENTIAL_CUTOFF = 1 << 13;
+
+    public static void main(String[] args) {
+        int[] sizes = {1_000_000, 10_000_000};
+        if (args.length > 0) { //например 100000000 (нужно -Xmx2g и больше)
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        Random random = new Random(1);
+        for (int n : sizes) {
+            int[] source = new int[n];
+            for (int i = 0; i < n; i++) source[i] = random.nextInt();
+            System.out.printf("n=%d, %d cores\n", n, cores);
+            Stopwatch.measure("sortSequential", 1, 3, () -> {
+                int[] a = source.clone();
+                sortSequential(a);
+                return a;
+            });
+            Stopwatch.measure("Arrays.sort", 1, 3, () -> {
+                int[] a = source.clone();
+                Arrays.sort(a);
+                return a;
+            });
+            //степени двойки и обязательно само число ядер (например 1, 2, 4, 6)
+            for (int threads = 1; threads <= cores; threads = threads < cores ? Math.min(2 * threads, cores) : cores + 1) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                Stopwatch.measure("sort, threads=" + threads, 1, 3, () -> {
+                    int[] a = source.clone();
+                    sort(a, pool);
+                    return a;
+                });
+                pool.shutdown();
+            }
+            Stopwatch.measure("Arrays.parallelSort", 1, 3, () -> {
+                int[] a = source.clone();
+                Arrays.parallelSort(a);
+                return a;
+            });
+            System.out.println();
+        }
+    }
+
+    static void sort(int[] a) {
+        sort(a, ForkJoinPool.commonPool());
+    }
+
+    static void sort(int[] a, ForkJoinPool pool) {
+        if (a.length < 2) return;
+        int[] buffer = a.clone();
+        pool.invoke(new Sort(a, buffer, 0, a.length));
+    }
+
+    static void sortSequential(int[] a) {
+        if (a.length < 2) return;
+        int[] buffer = a.clone();
+        sortSequential(a, buffer, 0, a.length);
+    }
+
+    //сортирует a[lo, hi); на входе b[lo, hi) совпадает с a[lo, hi), на выходе b - мусор
+    private static void sortSequential(int[] a, int[] b, int lo, int hi) {
+        if (hi - lo <= INSERTION_CUTOFF) {
+            insertionSort(a, lo, hi);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        sortSequential(b, a, lo, mid);
+        sortSequential(b, a, mid, hi);
+        //половины уже по порядку - сливать нечего, только вернуть их в a
+        if (b[mid - 1] <= b[mid]) System.arraycopy(b, lo, a, lo, hi - lo);
+        else merge(b, lo, mid, b, mid, hi, a, lo);
+    }
+
+    static void insertionSort(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            int value = a[i];
+            int j = i - 1;
+            while (j >= lo && a[j] > value) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    //x[xFrom, xTo) и y[yFrom, yTo) по возрастанию -> to[at, ...); при равенстве первым идет x
+    static void merge(int[] x, int xFrom, int xTo, int[] y, int yFrom, int yTo, int[] to, int at) {
+        while (xFrom < xTo && yFrom < yTo) {
+            to[at++] = y[yFrom] < x[xFrom] ? y[yFrom++] : x[xFrom++];
+        }
+        System.arraycopy(x, xFrom, to, at, xTo - xFrom);
+        System.arraycopy(y, yFrom, to, at + xTo - xFrom, yTo - yFrom);
+    }
+
+    //первый индекс в [from, to) с a[i] >= value (или > value, если strict), или to
+    private static int bound(int[] a, int from, int to, int value, boolean strict) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (a[mid] < value || strict && a[mid] == value) from = mid + 1;
+            else to = mid;
+        }
+        return from;
+    }
+
+    private static class Sort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int[] b;
+        private final int lo;
+        private final int hi;
+
+        Sort(int[] a, int[] b, int lo, int hi) {
+            this.a = a;
+            this.b = b;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= SEQUENTIAL_CUTOFF) {
+                sortSequential(a, b, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Sort(b, a, lo, mid), new Sort(b, a, mid, hi));
+            if (b[mid - 1] <= b[mid]) System.arraycopy(b, lo, a, lo, hi - lo);
+            else new Merge(b, lo, mid, mid, hi, a, lo).compute();
+        }
+    }
+
+    //слияние src[xFrom, xTo) и src[yFrom, yTo) (x - левая половина) в dst, начиная с at
+    private static class Merge extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src;
+        private final int xFrom;
+        private final int xTo;
+        private final int yFrom;
+        private final int yTo;
+        private final int[] dst;
+        private final int at;
+
+        Merge(int[] src, int xFrom, int xTo, int yFrom, int yTo, int[] dst, int at) {
+            this.src = src;
+            this.xFrom = xFrom;
+            this.xTo = xTo;
+            this.yFrom = yFrom;
+            this.yTo = yTo;
+            this.dst = dst;
+            this.at = at;
+        }
+
+        @Override
+        protected void compute() {
+            int xLength = xTo - xFrom;
+            int yLength = yTo - yFrom;
+            if (xLength + yLength <= SEQUENTIAL_CUTOFF) {
+                merge(src, xFrom, xTo, src, yFrom, yTo, dst, at);
+                return;
+            }
+            //делится большая половина; равные x идут раньше равных y, как в merge
+            int xMid;
+            int yMid;
+            if (xLength >= yLength) {
+                xMid = (xFrom + xTo) >>> 1;
+                yMid = bound(src, yFrom, yTo, src[xMid], false);
+            } else {
+                yMid = (yFrom + yTo) >>> 1;
+                xMid = bound(src, xFrom, xTo, src[yMid], true);
+            }
+            int split = at + (xMid - xFrom) + (yMid - yFrom);
+            invokeAll(new Merge(src, xFrom, xMid, yFrom, yMid, dst, at),
+                    new Merge(src, xMid, xTo, yMid, yTo, dst, split));
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package by.it.a_khmelev.lesson04;
+
+import by.it.a_khmelev.Stopwatch;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Варианты поиска в отсортированном массиве различных int.
+ * Все возвращают индекс с 1 (как в A_BinaryFind) или -1, если числа нет.
+ *
+ * BINARY      - обычный бинарный поиск с ветвлением на каждом шаге
+ * BRANCHLESS  - lower bound без ветвлений: длина отрезка зависит только от n,
+ *               а выбор половины - условное присваивание (JIT делает из него cmov),
+ *               поэтому нет ошибок предсказания переходов
+ * EYTZINGER   - массив в порядке обхода в ширину: b[1] - корень, дети k - 2k и 2k+1.
+ *               Первые уровни дерева лежат рядом и почти всегда в кэше, 2k и 2k+1 - одна кэш-линия.
+ *               Явного prefetch в Java нет, поэтому запросы спускаются группами в ногу:
+ *               число шагов одинаково (кроме неполного последнего уровня), промахи перекрываются
+ * BATCH       - много запросов сразу: BRANCHLESS для группы из BATCH запросов шагает
+ *               в ногу, и промахи кэша разных запросов перекрываются во времени
+ *
+ * Когда запросов много, выгоднее их отсортировать (вместе с исходными номерами, ключ long):
+ * GALLOP      - по отсортированным запросам, каждый ищется от места предыдущего
+ *               экспоненциальным поиском (шаги 1, 2, 4, ...): O(k log k + k log(n/k))
+ * MERGE       - слияние отсортированных запросов с массивом: O(k log k + n)
+ * AUTO        - выбор по n и k (см. choose)
+ */
+
+public class SortedSearch {
+
+    enum Method {BINARY, BRANCHLESS, EYTZINGER, BATCH, GALLOP, MERGE, AUTO}
+
+    //сколько запросов идут в ногу в BATCH
+    static final int BATCH = 16;
+
+    //границы для AUTO, подобраны по crossover() (см. main) при n = 10^6:
+    //с сортировкой запросов слияние обгоняет поиск по одному примерно с k = n/64,
+    //для уже отсортированных запросов галоп обгоняет его с k = n/256 (и дальше быстрее слияния)
+    static final int MERGE_MAX_RATIO = 64;
+    static final int GALLOP_MAX_RATIO = 256;
+
+    public static void main(String[] args) {
+        int[] sizes = {1_000, 100_000, 10_000_000};
+        if (args.length > 0) { //например 100000000 (нужно -Xmx2g и больше)
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+        }
+        Random random = new Random(1);
+        int k = 1_000_000;
+        for (int n : sizes) {
+            int[] a = sortedDistinct(n, random);
+            int[] queries = new int[k];
+            for (int i = 0; i < k; i++) {
+                //половина запросов есть в массиве, половина - нет
+                queries[i] = random.nextBoolean() ? a[random.nextInt(n)] : random.nextInt(Integer.MAX_VALUE);
+            }
+            Stopwatch watch = new Stopwatch();
+            Eytzinger eytzinger = new Eytzinger(a);
+            System.out.printf("n=%d, %d queries, Eytzinger layout built in %s\n", n, k, watch);
+            for (Method method : Method.values()) {
+                Stopwatch.measure(String.format("n=%d %s", n, method), 2, 5,
+                        () -> method == Method.EYTZINGER ? eytzinger.findAll(queries) : findAll(a, queries, method));
+            }
+            System.out.println();
+        }
+        crossover(1_000_000, random);
+    }
+
+    //при каком k сортировка запросов начинает выигрывать у поиска по одному
+    static void crossover(int n, Random random) {
+        int[] a = sortedDistinct(n, random);
+        for (int k = 16; k <= 16 * n; k *= 4) {
+            int[] queries = new int[k];
+            for (int i = 0; i < k; i++) queries[i] = a[random.nextInt(n)] + random.nextInt(2);
+            int[] ordered = queries.clone();
+            Arrays.sort(ordered);
+            System.out.printf("n=%d k=%d AUTO -> %s, sorted queries: AUTO -> %s\n",
+                    n, k, choose(n, k, false), choose(n, k, true));
+            for (Method method : new Method[]{Method.BINARY, Method.GALLOP, Method.MERGE}) {
+                Stopwatch.measure(String.format("  %s", method), 2, 5, () -> findAll(a, queries, method));
+            }
+            for (Method method : new Method[]{Method.BINARY, Method.GALLOP}) {
+                Stopwatch.measure(String.format("  %s, sorted queries", method), 2, 5, () -> findAll(a, ordered, method));
+            }
+        }
+    }
+
+    //n различных чисел по возрастанию
+    static int[] sortedDistinct(int n, Random random) {
+        int[] a = new int[n];
+        int value = 0;
+        int step = Math.max(1, Math.min(100, Integer.MAX_VALUE / 2 / Math.max(1, n)));
+        for (int i = 0; i < n; i++) {
+            value += 1 + random.nextInt(step);
+            a[i] = value;
+        }
+        return a;
+    }
+
+    static int[] findAll(int[] a, int[] values, Method method) {
+        switch (method) {
+            case BINARY: {
+                int[] result = new int[values.length];
+                for (int i = 0; i < values.length; i++) result[i] = binary(a, values[i]);
+                return result;
+            }
+            case BRANCHLESS: {
+                int[] result = new int[values.length];
+                for (int i = 0; i < values.length; i++) result[i] = branchless(a, values[i]);
+                return result;
+            }
+            case EYTZINGER:
+                return new Eytzinger(a).findAll(values);
+            case BATCH:
+                return batch(a, values);
+            case GALLOP:
+                return gallop(a, values, isSorted(values));
+            case MERGE:
+                return merge(a, values, isSorted(values));
+            case AUTO: {
+                //порядок запросов проверяется один раз: он нужен и для выбора, и для сортировки
+                boolean sorted = isSorted(values);
+                Method chosen = choose(a.length, values.length, sorted);
+                if (chosen == Method.GALLOP) return gallop(a, values, sorted);
+                if (chosen == Method.MERGE) return merge(a, values, sorted);
+                return findAll(a, values, chosen);
+            }
+            default:
+                throw new IllegalArgumentException(String.valueOf(method));
+        }
+    }
+
+    //редкие запросы - поиск по одному, частые - сортировка и слияние;
+    //если запросы уже по возрастанию, сортировать не нужно и галоп идет только вперед
+    static Method choose(int n, int k, boolean sorted) {
+        if (sorted) return n <= (long) k * GALLOP_MAX_RATIO ? Method.GALLOP : Method.BINARY;
+        return n <= (long) k * MERGE_MAX_RATIO ? Method.MERGE : Method.BINARY;
+    }
+
+    static boolean isSorted(int[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] < values[i - 1]) return false;
+        }
+        return true;
+    }
+
+    static int binary(int[] a, int value) {
+        int lo = 0;
+        int hi = a.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < value) lo = mid + 1;
+            else if (a[mid] > value) hi = mid - 1;
+            else return mid + 1;
+        }
+        return -1;
+    }
+
+    static int branchless(int[] a, int value) {
+        if (a.length == 0) return -1;
+        int base = 0;
+        int n = a.length;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = a[base + half] < value ? base + half : base;
+            n -= half;
+        }
+        //base - последний элемент < value (или 0), ответ - base или base+1
+        int lower = base + (a[base] < value ? 1 : 0);
+        return lower < a.length && a[lower] == value ? lower + 1 : -1;
+    }
+
+    static int[] batch(int[] a, int[] values) {
+        int[] result = new int[values.length];
+        if (a.length == 0) {
+            Arrays.fill(result, -1);
+            return result;
+        }
+        int[] base = new int[BATCH];
+        for (int from = 0; from < values.length; from += BATCH) {
+            int m = Math.min(BATCH, values.length - from);
+            Arrays.fill(base, 0, m, 0);
+            int n = a.length;
+            while (n > 1) {
+                int half = n >>> 1;
+                for (int g = 0; g < m; g++) {
+                    base[g] = a[base[g] + half] < values[from + g] ? base[g] + half : base[g];
+                }
+                n -= half;
+            }
+            for (int g = 0; g < m; g++) {
+                int value = values[from + g];
+                int lower = base[g] + (a[base[g]] < value ? 1 : 0);
+                result[from + g] = lower < a.length && a[lower] == value ? lower + 1 : -1;
+            }
+        }
+        return result;
+    }
+
+    //ordered - запросы уже по возрастанию (isSorted), тогда сортировать их не нужно
+    static int[] gallop(int[] a, int[] values, boolean ordered) {
+        int n = a.length;
+        long[] sorted = sortWithPositions(values, ordered);
+        int[] result = new int[values.length];
+        int position = 0; //все a[< position] меньше текущего запроса
+        for (long query : sorted) {
+            int value = (int) (query >> 32);
+            if (position < n && a[position] < value) {
+                //a[lo] < value, шаг удваивается, пока не перешагнем value
+                int lo = position;
+                int step = 1;
+                int hi = step > n - lo ? n : lo + step;
+                while (hi < n && a[hi] < value) {
+                    lo = hi;
+                    step <<= 1;
+                    hi = step > n - lo ? n : lo + step;
+                }
+                position = lowerBound(a, lo + 1, hi, value);
+            }
+            result[(int) query] = position < n && a[position] == value ? position + 1 : -1;
+        }
+        return result;
+    }
+
+    static int[] merge(int[] a, int[] values, boolean ordered) {
+        int n = a.length;
+        long[] sorted = sortWithPositions(values, ordered);
+        int[] result = new int[values.length];
+        int i = 0;
+        for (long query : sorted) {
+            int value = (int) (query >> 32);
+            while (i < n && a[i] < value) i++;
+            result[(int) query] = i < n && a[i] == value ? i + 1 : -1;
+        }
+        return result;
+    }
+
+    //ключ long: значение в старших 32 битах, номер запроса - в младших
+    private static long[] sortWithPositions(int[] values, boolean ordered) {
+        long[] sorted = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            sorted[i] = ((long) values[i] << 32) | (i & 0xFFFFFFFFL);
+        }
+        if (!ordered) Arrays.sort(sorted);
+        return sorted;
+    }
+
+    //первый индекс в [from, to) с a[i] >= value, или to
+    private static int lowerBound(int[] a, int from, int to, int value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (a[mid] < value) from = mid + 1;
+            else to = mid;
+        }
+        return from;
+    }
+
+    //массив в порядке Эйтцингера, строится один раз и обслуживает много запросов
+    static class Eytzinger {
+        private final int[] b;     //b[1..n], b[0] не используется
+        private final int[] index; //index[k] - индекс b[k] в исходном массиве (с 1)
+        private int next;
+
+        Eytzinger(int[] a) {
+            b = new int[a.length + 1];
+            index = new int[a.length + 1];
+            fill(a, 1);
+        }
+
+        //обход в симметричном порядке (левое поддерево, узел, правое) раскладывает a по возрастанию
+        private void fill(int[] a, int k) {
+            if (k >= b.length) return;
+            fill(a, 2 * k);
+            b[k] = a[next];
+            index[k] = ++next;
+            fill(a, 2 * k + 1);
+        }
+
+        int find(int value) {
+            int n = b.length - 1;
+            int k = 1;
+            while (k <= n) {
+                k = 2 * k + (b[k] < value ? 1 : 0);
+            }
+            //отменить хвост шагов "вправо" и один шаг "влево": получится первый b[k] >= value
+            k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+            return k != 0 && b[k] == value ? index[k] : -1;
+        }
+
+        //запросы идут группами по BATCH в ногу, как в batch(): промахи кэша перекрываются
+        int[] findAll(int[] values) {
+            int[] result = new int[values.length];
+            int n = b.length - 1;
+            int full = 31 - Integer.numberOfLeadingZeros(Math.max(1, n)); //столько шагов делают все
+            int[] k = new int[BATCH];
+            for (int from = 0; from < values.length; from += BATCH) {
+                int m = Math.min(BATCH, values.length - from);
+                Arrays.fill(k, 0, m, 1);
+                for (int step = 0; step < full; step++) {
+                    for (int g = 0; g < m; g++) {
+                        k[g] = 2 * k[g] + (b[k[g]] < values[from + g] ? 1 : 0);
+                    }
+                }
+                for (int g = 0; g < m; g++) {
+                    int value = values[from + g];
+                    int j = k[g];
+                    if (j <= n) j = 2 * j + (b[j] < value ? 1 : 0); //неполный последний уровень
+                    j >>>= Integer.numberOfTrailingZeros(~j) + 1;
+                    result[from + g] = j != 0 && b[j] == value ? index[j] : -1;
+                }
+            }
+            return result;
+        }
+    }
+}